@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra.benchmarks;
+
+import org.httprpc.sierra.RowPanel;
+import org.httprpc.sierra.TextPane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.JLabel;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BaselineBenchmark {
+    @Param({"1", "4", "8", "12"})
+    public int depth;
+
+    private RowPanel rowPanel;
+
+    private int width;
+    private int height;
+
+    @Setup
+    public void setup() {
+        rowPanel = createRowPanel(depth);
+
+        BenchmarkSupport.attach(rowPanel);
+
+        var preferredSize = rowPanel.getPreferredSize();
+
+        width = preferredSize.width;
+        height = preferredSize.height;
+
+        BenchmarkSupport.layout(rowPanel, width, height);
+    }
+
+    private static RowPanel createRowPanel(int depth) {
+        var rowPanel = new RowPanel();
+
+        rowPanel.setSpacing(4);
+        rowPanel.setAlignToBaseline(true);
+
+        var label = new JLabel(String.format("Depth %d", depth));
+
+        label.setFont(label.getFont().deriveFont(Font.PLAIN, 12 + depth * 2));
+
+        rowPanel.add(label);
+
+        if (depth > 1) {
+            rowPanel.add(createRowPanel(depth - 1));
+        }
+
+        rowPanel.add(new TextPane("Text"));
+
+        return rowPanel;
+    }
+
+    @Benchmark
+    public Dimension measure() {
+        // Nested panels cache their own measurements, so the whole hierarchy is invalidated
+        BenchmarkSupport.invalidateTree(rowPanel);
+
+        return rowPanel.getPreferredSize();
+    }
+
+    @Benchmark
+    public void relayout() {
+        BenchmarkSupport.invalidateTree(rowPanel);
+
+        BenchmarkSupport.layout(rowPanel, width, height);
+    }
+
+    @Benchmark
+    public int baseline() {
+        BenchmarkSupport.invalidateTree(rowPanel);
+
+        return rowPanel.getBaseline(width, height);
+    }
+
+    @Benchmark
+    public int baselineCached() {
+        return rowPanel.getBaseline(width, height);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra.benchmarks;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import java.awt.Container;
+
+final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    static <C extends JComponent> C attach(C component) {
+        // Provide a lightweight peer so the component can be validated without a window
+        var root = new JPanel(null);
+
+        root.add(component);
+        root.addNotify();
+
+        return component;
+    }
+
+    static void layout(JComponent component, int width, int height) {
+        component.setSize(width, height);
+        component.validate();
+    }
+
+    static void invalidateTree(Container container) {
+        container.invalidate();
+
+        for (var i = 0; i < container.getComponentCount(); i++) {
+            if (container.getComponent(i) instanceof Container child) {
+                invalidateTree(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra.benchmarks;
+
+import org.httprpc.sierra.ColumnPanel;
+import org.httprpc.sierra.LayoutPanel;
+import org.httprpc.sierra.RowPanel;
+import org.httprpc.sierra.TextPane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.JLabel;
+import javax.swing.JTextField;
+import java.awt.Dimension;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GridBenchmark {
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    @Param({"true", "false"})
+    public boolean layoutCacheEnabled;
+
+    private ColumnPanel columnPanel;
+
+    private int width;
+    private int height;
+
+    private int delta = 0;
+
+    @Setup
+    public void setup() {
+        LayoutPanel.setLayoutCacheEnabled(layoutCacheEnabled);
+
+        columnPanel = new ColumnPanel();
+
+        columnPanel.setSpacing(4);
+        columnPanel.setAlignToGrid(true);
+
+        columnPanel.batch(() -> {
+            for (var i = 0; i < rowCount; i++) {
+                var rowPanel = new RowPanel();
+
+                rowPanel.setSpacing(4);
+
+                rowPanel.add(new JLabel(String.format("Row %d", i)));
+                rowPanel.add(new JTextField(8 + i % 8));
+                rowPanel.add(new TextPane("x".repeat(i % 16)), 1.0);
+                rowPanel.add(new JLabel("Label"));
+
+                columnPanel.add(rowPanel);
+            }
+        });
+
+        BenchmarkSupport.attach(columnPanel);
+
+        var preferredSize = columnPanel.getPreferredSize();
+
+        width = preferredSize.width;
+        height = preferredSize.height;
+
+        BenchmarkSupport.layout(columnPanel, width, height);
+    }
+
+    @TearDown
+    public void tearDown() {
+        LayoutPanel.setLayoutCacheEnabled(true);
+    }
+
+    @Benchmark
+    public Dimension measure() {
+        columnPanel.invalidate();
+
+        return columnPanel.getPreferredSize();
+    }
+
+    @Benchmark
+    public void resize() {
+        delta = (delta + 1) % 8;
+
+        BenchmarkSupport.layout(columnPanel, width + delta, height);
+    }
+
+    @Benchmark
+    public void relayout() {
+        columnPanel.invalidate();
+
+        BenchmarkSupport.layout(columnPanel, width, height);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra.benchmarks;
+
+import org.httprpc.sierra.ImagePane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ImagePaneBenchmark {
+    @Param({"NONE", "FILL_WIDTH", "FILL_HEIGHT"})
+    public ImagePane.ScaleMode scaleMode;
+
+    @Param({"1600", "400"})
+    public int imageWidth;
+
+    private ImagePane imagePane;
+
+    private BufferedImage target;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setup() {
+        var image = new BufferedImage(imageWidth, imageWidth * 3 / 4, BufferedImage.TYPE_INT_ARGB);
+
+        var imageGraphics = image.createGraphics();
+
+        imageGraphics.setPaint(new GradientPaint(0, 0, Color.RED, image.getWidth(), image.getHeight(), Color.BLUE));
+        imageGraphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        imageGraphics.dispose();
+
+        imagePane = new ImagePane(image);
+
+        imagePane.setScaleMode(scaleMode);
+
+        BenchmarkSupport.layout(BenchmarkSupport.attach(imagePane), 800, 600);
+
+        target = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+
+        graphics = target.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        imagePane.paint(graphics);
+
+        return target;
+    }
+}
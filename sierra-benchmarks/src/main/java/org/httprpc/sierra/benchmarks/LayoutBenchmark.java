@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra.benchmarks;
+
+import org.httprpc.sierra.BoxPanel;
+import org.httprpc.sierra.ColumnPanel;
+import org.httprpc.sierra.RowPanel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.JLabel;
+import java.awt.Dimension;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LayoutBenchmark {
+    @Param({"row", "column"})
+    public String orientation;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int componentCount;
+
+    private BoxPanel panel;
+
+    private int width;
+    private int height;
+
+    private int delta = 0;
+
+    @Setup
+    public void setup() {
+        panel = orientation.equals("row") ? new RowPanel() : new ColumnPanel();
+
+        panel.setSpacing(4);
+
+        panel.batch(() -> {
+            for (var i = 0; i < componentCount; i++) {
+                panel.add(new JLabel(String.format("Label %d", i)), (i % 10 == 0) ? 1.0 : null);
+            }
+        });
+
+        BenchmarkSupport.attach(panel);
+
+        var preferredSize = panel.getPreferredSize();
+
+        width = preferredSize.width;
+        height = preferredSize.height;
+
+        BenchmarkSupport.layout(panel, width, height);
+    }
+
+    @Benchmark
+    public Dimension measure() {
+        panel.invalidate();
+
+        return panel.getPreferredSize();
+    }
+
+    @Benchmark
+    public void resize() {
+        delta = (delta + 1) % 8;
+
+        BenchmarkSupport.layout(panel, width + delta, height + delta);
+    }
+
+    @Benchmark
+    public void relayout() {
+        panel.invalidate();
+
+        BenchmarkSupport.layout(panel, width, height);
+    }
+}
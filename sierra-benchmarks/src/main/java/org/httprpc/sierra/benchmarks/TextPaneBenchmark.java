@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra.benchmarks;
+
+import org.httprpc.sierra.TextPane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Dimension;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TextPaneBenchmark {
+    private static final String TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+        + "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation "
+        + "ullamco laboris nisi ut aliquip ex ea commodo consequat. ";
+
+    @Param({"1", "100"})
+    public int paragraphCount;
+
+    @Param({"200", "800"})
+    public int width;
+
+    private TextPane textPane;
+    private TextPane consolePane;
+
+    private int delta = 0;
+
+    @Setup
+    public void setup() {
+        textPane = new TextPane(TEXT.repeat(paragraphCount));
+
+        textPane.setWrapText(true);
+
+        BenchmarkSupport.attach(textPane);
+
+        textPane.setSize(width, 0);
+
+        consolePane = new TextPane(TEXT.repeat(paragraphCount));
+
+        consolePane.setWrapText(true);
+        consolePane.setMaximumLineCount(1000);
+
+        BenchmarkSupport.attach(consolePane);
+
+        consolePane.setSize(width, 0);
+        consolePane.getPreferredSize();
+    }
+
+    @Benchmark
+    public Dimension measure() {
+        // Cycling through more widths than the text pane retains ensures that the text is wrapped again
+        resize();
+
+        return textPane.getPreferredSize();
+    }
+
+    @Benchmark
+    public Dimension measureCached() {
+        return textPane.getPreferredSize();
+    }
+
+    @Benchmark
+    public void layout() {
+        resize();
+
+        textPane.doLayout();
+    }
+
+    @Benchmark
+    public void layoutCached() {
+        textPane.doLayout();
+    }
+
+    @Benchmark
+    public Dimension append() {
+        consolePane.append(TEXT);
+
+        var size = consolePane.getPreferredSize();
+
+        consolePane.doLayout();
+
+        return size;
+    }
+
+    private void resize() {
+        delta = (delta + 1) % 8;
+
+        textPane.setSize(width + delta, 0);
+    }
+}
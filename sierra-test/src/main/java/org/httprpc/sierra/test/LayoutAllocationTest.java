@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra.test;
+
+import org.httprpc.sierra.ColumnPanel;
+import org.httprpc.sierra.RowPanel;
+import org.httprpc.sierra.SizeDependent;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import java.awt.Dimension;
+import java.lang.management.ManagementFactory;
+
+public class LayoutAllocationTest implements Runnable {
+    // Cells report a shared preferred size, so that only allocations made by the layout managers are counted
+    private static class Cell extends JComponent implements SizeDependent {
+        static final Dimension preferredSize = new Dimension(80, 20);
+
+        @Override
+        public Dimension getPreferredSize(int width, int height) {
+            return preferredSize;
+        }
+    }
+
+    private static final int ROW_COUNT = 1000;
+
+    private static final int WARMUP_COUNT = 2000;
+    private static final int LAYOUT_COUNT = 1000;
+
+    private static final long MAXIMUM_BYTES_PER_LAYOUT = 1024;
+
+    @Override
+    public void run() {
+        var columnPanel = new ColumnPanel();
+
+        columnPanel.setAlignToGrid(true);
+
+        for (var i = 0; i < ROW_COUNT; i++) {
+            var rowPanel = new RowPanel();
+
+            rowPanel.add(new Cell());
+            rowPanel.add(new Cell(), 1.0);
+
+            columnPanel.add(rowPanel);
+        }
+
+        columnPanel.addNotify();
+
+        for (var i = 0; i < WARMUP_COUNT; i++) {
+            layout(columnPanel, i);
+        }
+
+        var threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+        var threadID = Thread.currentThread().getId();
+
+        var allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadID);
+
+        for (var i = 0; i < LAYOUT_COUNT; i++) {
+            layout(columnPanel, i);
+        }
+
+        var bytesPerLayout = (threadMXBean.getThreadAllocatedBytes(threadID) - allocatedBytes) / LAYOUT_COUNT;
+
+        System.out.printf("Allocated %d bytes per layout of %d rows.\n", bytesPerLayout, ROW_COUNT);
+
+        if (bytesPerLayout > MAXIMUM_BYTES_PER_LAYOUT) {
+            throw new IllegalStateException(String.format("Allocation limit of %d bytes per layout exceeded.", MAXIMUM_BYTES_PER_LAYOUT));
+        }
+    }
+
+    private static void layout(ColumnPanel columnPanel, int i) {
+        // Alternating widths ensures that every layout is recalculated
+        columnPanel.setSize(400 + (i % 2) * 100, ROW_COUNT * 20);
+        columnPanel.validate();
+    }
+
+    public static void main(String[] args) throws Exception {
+        SwingUtilities.invokeAndWait(new LayoutAllocationTest());
+    }
+}
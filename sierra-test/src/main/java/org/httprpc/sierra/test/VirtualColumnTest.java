@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra.test;
+
+import com.formdev.flatlaf.FlatLightLaf;
+import org.httprpc.sierra.RowPanel;
+import org.httprpc.sierra.TextPane;
+import org.httprpc.sierra.VirtualColumnPanel;
+
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+
+import static org.httprpc.sierra.UIBuilder.*;
+
+public class VirtualColumnTest extends JFrame implements Runnable {
+    private static final int ROW_COUNT = 100000;
+
+    private VirtualColumnTest() {
+        super("Virtual Column Test");
+
+        setDefaultCloseOperation(EXIT_ON_CLOSE);
+    }
+
+    @Override
+    public void run() {
+        var virtualColumnPanel = new VirtualColumnPanel<RowPanel>(() -> row(8,
+            cell(new JLabel()).with(label -> label.setAlignmentX(1.0f)),
+            cell(new TextPane()).weightBy(1.0)
+        ), (rowPanel, index) -> {
+            ((JLabel)rowPanel.getComponent(0)).setText(String.format("%,d", index + 1));
+            ((TextPane)rowPanel.getComponent(1)).setText(String.format("Item %d of %d", index + 1, ROW_COUNT));
+        });
+
+        virtualColumnPanel.setRowCount(ROW_COUNT);
+        virtualColumnPanel.setSpacing(4);
+        virtualColumnPanel.setAlignToGrid(true);
+        virtualColumnPanel.setBorder(new EmptyBorder(8, 8, 8, 8));
+        virtualColumnPanel.setScrollableTracksViewportWidth(true);
+
+        var scrollPane = new JScrollPane(virtualColumnPanel);
+
+        scrollPane.setBorder(null);
+
+        setContentPane(scrollPane);
+
+        setSize(320, 480);
+        setVisible(true);
+    }
+
+    public static void main(String[] args) {
+        FlatLightLaf.setup();
+
+        SwingUtilities.invokeLater(new VirtualColumnTest());
+    }
+}
@@ -15,18 +15,19 @@
 package org.httprpc.sierra;
 
 import javax.swing.JComponent;
-import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.plaf.ComponentUI;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
-import java.awt.Shape;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.RoundRectangle2D;
-import java.util.LinkedList;
-import java.util.List;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Shows indeterminate progress.
@@ -73,57 +74,65 @@ public class ActivityIndicator extends JComponent {
 
             graphics = (Graphics2D)graphics.create();
 
-            graphics.setClip(insets.left, insets.top, width, height);
+            graphics.clipRect(insets.left, insets.top, width, height);
 
-            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            var radius = indicatorSize / 2;
-
-            var x = (width - indicatorSize) / 2 + insets.left + radius;
-            var y = (height - indicatorSize) / 2 + insets.top + radius;
+            var x = (width - indicatorSize) / 2 + insets.left;
+            var y = (height - indicatorSize) / 2 + insets.top;
 
             graphics.translate(x, y);
 
-            graphics.rotate((angle % 360) * Math.PI / 180);
+            var transform = graphics.getTransform();
 
-            var foreground = getForeground();
+            // Frames can only be copied when the graphics is scaled uniformly and not rotated
+            if ((transform.getType() & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_UNIFORM_SCALE)) == 0) {
+                var deviceScale = transform.getScaleX();
 
-            for (var i = 0; i < SPOKE_COUNT; i++) {
-                var alpha = (int)Math.round((i * (1.0 / SPOKE_COUNT)) * 255);
+                var frameStrip = getFrameStrip(indicatorSize, getForeground(), deviceScale);
 
-                var color = new Color(foreground.getRed(), foreground.getGreen(), foreground.getBlue(), alpha);
+                var frameSize = frameStrip.getHeight();
+                var frameX = frame * frameSize;
 
-                graphics.setColor(color);
-                graphics.fill(spokeShape);
+                // Frames are drawn at device resolution, aligned to the nearest device pixel
+                graphics.setTransform(AffineTransform.getTranslateInstance(Math.round(transform.getTranslateX()), Math.round(transform.getTranslateY())));
 
-                graphics.rotate(INCREMENT);
+                graphics.drawImage(frameStrip, 0, 0, frameSize, frameSize, frameX, 0, frameX + frameSize, frameSize, null);
+            } else {
+                paintFrame(graphics, indicatorSize, getForeground(), frame * (360 / SPOKE_COUNT));
             }
 
             graphics.dispose();
         }
     }
 
-    private int indicatorSize;
+    private record FrameStripKey(int indicatorSize, int rgb, double deviceScale) {
+    }
 
-    private Shape spokeShape;
+    private int indicatorSize;
 
     private boolean active = false;
 
-    private static int angle = 0;
-
-    private static List<ActivityIndicator> activeInstances = new LinkedList<>();
+    private int frame = 0;
 
     private static final int SPOKE_COUNT = 8;
 
+    private static final int FRAME_RATE = 10;
+
+    private static final long FRAME_DURATION = 1_000_000_000L / FRAME_RATE;
+
     private static final double INCREMENT = (2 * Math.PI) / SPOKE_COUNT;
 
-    private static Timer timer = new Timer(100, event -> {
-        angle = (angle + 360 / SPOKE_COUNT) % 360;
+    private static final int MAXIMUM_FRAME_STRIP_COUNT = 16;
 
-        for (var instance : activeInstances) {
-            instance.repaint();
+    // Frame strips are shared by all indicators with the same size, color, and device scale
+    private static final Map<FrameStripKey, BufferedImage> frameStrips = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FrameStripKey, BufferedImage> eldest) {
+            return size() > MAXIMUM_FRAME_STRIP_COUNT;
         }
-    });
+    };
+
+    // The animation does not capture the indicator, so indicators that are never stopped can still be collected
+    private static final AnimationClock.Animation animation = (component, frameTime) -> ((ActivityIndicator)component).advance(frameTime);
 
     /**
      * Constructs a new activity indicator.
@@ -143,11 +152,6 @@ public class ActivityIndicator extends JComponent {
 
         this.indicatorSize = indicatorSize;
 
-        var spokeWidth = indicatorSize / 3;
-        var spokeHeight = indicatorSize / 8;
-
-        spokeShape = new RoundRectangle2D.Double(spokeWidth / 2.0, -spokeHeight / 2.0, spokeWidth, spokeHeight, spokeHeight, spokeHeight);
-
         if (UIManager.getLookAndFeelDefaults().get("Label.disabledForeground") instanceof Color foreground) {
             setForeground(foreground);
         }
@@ -177,15 +181,17 @@ public class ActivityIndicator extends JComponent {
      * Starts the activity indicator.
      */
     public void start() {
-        repaint();
-
-        if (activeInstances.isEmpty()) {
-            timer.start();
+        if (active) {
+            return;
         }
 
-        activeInstances.add(this);
-
         active = true;
+
+        frame = getFrame(System.nanoTime());
+
+        AnimationClock.addAnimation(this, animation, FRAME_RATE);
+
+        repaint();
     }
 
     /**
@@ -194,12 +200,86 @@ public class ActivityIndicator extends JComponent {
     public void stop() {
         active = false;
 
-        activeInstances.remove(this);
+        AnimationClock.removeAnimation(this);
+
+        repaint();
+    }
+
+    private Rectangle advance(long frameTime) {
+        var frame = getFrame(frameTime);
 
-        if (activeInstances.isEmpty()) {
-            timer.stop();
+        if (frame == this.frame) {
+            return null;
         }
 
-        repaint();
+        this.frame = frame;
+
+        return new Rectangle(0, 0, getWidth(), getHeight());
+    }
+
+    private static int getFrame(long time) {
+        return Math.floorMod(Math.floorDiv(time, FRAME_DURATION), SPOKE_COUNT);
+    }
+
+    private static BufferedImage getFrameStrip(int indicatorSize, Color foreground, double deviceScale) {
+        var key = new FrameStripKey(indicatorSize, foreground.getRGB(), deviceScale);
+
+        var frameStrip = frameStrips.get(key);
+
+        if (frameStrip == null) {
+            var frameSize = Math.max((int)Math.ceil(indicatorSize * deviceScale), 1);
+
+            frameStrip = new BufferedImage(frameSize * SPOKE_COUNT, frameSize, BufferedImage.TYPE_INT_ARGB_PRE);
+
+            var graphics = frameStrip.createGraphics();
+
+            graphics.scale(deviceScale, deviceScale);
+
+            for (var i = 0; i < SPOKE_COUNT; i++) {
+                var frameGraphics = (Graphics2D)graphics.create();
+
+                frameGraphics.translate(i * frameSize / deviceScale, 0);
+
+                paintFrame(frameGraphics, indicatorSize, foreground, i * (360 / SPOKE_COUNT));
+
+                frameGraphics.dispose();
+            }
+
+            graphics.dispose();
+
+            frameStrips.put(key, frameStrip);
+        }
+
+        return frameStrip;
+    }
+
+    private static void paintFrame(Graphics2D graphics, int indicatorSize, Color foreground, int angle) {
+        graphics = (Graphics2D)graphics.create();
+
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        var radius = indicatorSize / 2;
+
+        graphics.translate(radius, radius);
+
+        graphics.rotate((angle % 360) * Math.PI / 180);
+
+        var spokeWidth = indicatorSize / 3;
+        var spokeHeight = indicatorSize / 8;
+
+        var spokeShape = new RoundRectangle2D.Double(spokeWidth / 2.0, -spokeHeight / 2.0, spokeWidth, spokeHeight, spokeHeight, spokeHeight);
+
+        for (var i = 0; i < SPOKE_COUNT; i++) {
+            var alpha = (int)Math.round((i * (1.0 / SPOKE_COUNT)) * 255);
+
+            var color = new Color(foreground.getRed(), foreground.getGreen(), foreground.getBlue(), alpha);
+
+            graphics.setColor(color);
+            graphics.fill(spokeShape);
+
+            graphics.rotate(INCREMENT);
+        }
+
+        graphics.dispose();
     }
 }
@@ -0,0 +1,301 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.Component;
+import java.awt.Frame;
+import java.awt.Rectangle;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.event.WindowStateListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Drives animated components from a single clock.
+ */
+public class AnimationClock {
+    /**
+     * Represents an animation.
+     */
+    public interface Animation {
+        /**
+         * Advances an animation.
+         *
+         * @param component
+         * The animated component.
+         *
+         * @param frameTime
+         * The time of the current frame, in nanoseconds.
+         *
+         * @return
+         * The region of the component that needs to be repainted, or
+         * {@code null} if the component has not changed.
+         */
+        Rectangle advance(JComponent component, long frameTime);
+    }
+
+    // Animation state
+    private static class Registration {
+        final Animation animation;
+        final long framePeriod;
+
+        // -1 indicates that the animation is paused
+        long lastFrame = -1;
+
+        Registration(Animation animation, long framePeriod) {
+            this.animation = animation;
+            this.framePeriod = framePeriod;
+        }
+    }
+
+    private static final long epoch = System.nanoTime();
+
+    private static long frameCount = 0;
+    private static long droppedFrameCount = 0;
+    private static long totalFrameTime = 0;
+    private static long maximumFrameTime = 0;
+
+    // Components are held weakly so that animations that are never removed do not prevent collection
+    private static final Map<JComponent, Registration> registrations = new WeakHashMap<>();
+
+    private static final HierarchyListener hierarchyListener = event -> {
+        if ((event.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+            watchWindow(event.getComponent());
+
+            schedule();
+        }
+    };
+
+    // Windows do not generate hierarchy events when they are iconified or restored
+    private static final WindowStateListener windowStateListener = event -> schedule();
+
+    private static final Timer timer = new Timer(0, event -> tick());
+
+    static {
+        timer.setRepeats(false);
+    }
+
+    private AnimationClock() {
+    }
+
+    /**
+     * Adds an animation. The animation is advanced at the given frame rate
+     * while the component is showing. Components must not be referenced by
+     * their animations.
+     *
+     * @param component
+     * The animated component.
+     *
+     * @param animation
+     * The animation.
+     *
+     * @param frameRate
+     * The frame rate, in frames per second.
+     */
+    public static void addAnimation(JComponent component, Animation animation, int frameRate) {
+        if (component == null || animation == null || frameRate <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        if (registrations.put(component, new Registration(animation, 1_000_000_000L / frameRate)) == null) {
+            component.addHierarchyListener(hierarchyListener);
+        }
+
+        watchWindow(component);
+
+        schedule();
+    }
+
+    /**
+     * Removes an animation.
+     *
+     * @param component
+     * The animated component.
+     */
+    public static void removeAnimation(JComponent component) {
+        if (component == null) {
+            throw new IllegalArgumentException();
+        }
+
+        if (registrations.remove(component) != null) {
+            component.removeHierarchyListener(hierarchyListener);
+        }
+
+        schedule();
+    }
+
+    /**
+     * Returns the number of frames that have been processed.
+     *
+     * @return
+     * The frame count.
+     */
+    public static long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns the number of animation frames that were skipped because the UI
+     * thread fell behind.
+     *
+     * @return
+     * The dropped frame count.
+     */
+    public static long getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    /**
+     * Returns the total time spent advancing animations.
+     *
+     * @return
+     * The total frame time, in nanoseconds.
+     */
+    public static long getTotalFrameTime() {
+        return totalFrameTime;
+    }
+
+    /**
+     * Returns the longest time spent advancing animations in a single frame.
+     *
+     * @return
+     * The maximum frame time, in nanoseconds.
+     */
+    public static long getMaximumFrameTime() {
+        return maximumFrameTime;
+    }
+
+    /**
+     * Resets the frame statistics.
+     */
+    public static void resetStatistics() {
+        frameCount = 0;
+        droppedFrameCount = 0;
+        totalFrameTime = 0;
+        maximumFrameTime = 0;
+    }
+
+    private static void schedule() {
+        var now = System.nanoTime();
+
+        var nextFrameTime = Long.MAX_VALUE;
+
+        for (var entry : registrations.entrySet()) {
+            var component = entry.getKey();
+
+            var registration = entry.getValue();
+
+            // Hidden animations are paused, so that the time they spend hidden is not counted as dropped frames
+            if (!isAnimating(component)) {
+                registration.lastFrame = -1;
+
+                continue;
+            }
+
+            // Paused animations are advanced as soon as possible; others at their next frame boundary
+            var frameTime = (registration.lastFrame < 0) ? now : epoch + (registration.lastFrame + 1) * registration.framePeriod;
+
+            nextFrameTime = Math.min(nextFrameTime, frameTime);
+        }
+
+        // The timer is stopped while no animated component is showing
+        if (nextFrameTime == Long.MAX_VALUE) {
+            timer.stop();
+
+            return;
+        }
+
+        timer.setInitialDelay((int)Math.max((nextFrameTime - now + 999_999) / 1_000_000, 0));
+        timer.restart();
+    }
+
+    private static void tick() {
+        var start = System.nanoTime();
+
+        var advanced = false;
+
+        for (var entry : new ArrayList<>(registrations.entrySet())) {
+            var component = entry.getKey();
+
+            if (component == null) {
+                continue;
+            }
+
+            var registration = entry.getValue();
+
+            if (!isAnimating(component)) {
+                registration.lastFrame = -1;
+
+                continue;
+            }
+
+            var frame = (start - epoch) / registration.framePeriod;
+
+            // The timer may fire slightly before the animation's next frame boundary
+            if (frame <= registration.lastFrame) {
+                continue;
+            }
+
+            // Frames that have already passed are skipped rather than rendered late
+            if (registration.lastFrame >= 0) {
+                droppedFrameCount += frame - registration.lastFrame - 1;
+            }
+
+            registration.lastFrame = frame;
+
+            var dirtyRegion = registration.animation.advance(component, epoch + frame * registration.framePeriod);
+
+            // Dirty regions are coalesced by the repaint manager, which validates and paints them in a single pass
+            if (dirtyRegion != null) {
+                component.repaint(dirtyRegion);
+            }
+
+            advanced = true;
+        }
+
+        if (advanced) {
+            var elapsedTime = System.nanoTime() - start;
+
+            frameCount++;
+
+            totalFrameTime += elapsedTime;
+            maximumFrameTime = Math.max(maximumFrameTime, elapsedTime);
+        }
+
+        schedule();
+    }
+
+    private static boolean isAnimating(JComponent component) {
+        if (component == null || !component.isShowing()) {
+            return false;
+        }
+
+        // Components in iconified frames are not visible
+        return !(SwingUtilities.getWindowAncestor(component) instanceof Frame frame && (frame.getExtendedState() & Frame.ICONIFIED) != 0);
+    }
+
+    private static void watchWindow(Component component) {
+        if (component.isShowing() && SwingUtilities.getWindowAncestor(component) instanceof Frame frame
+            && !Arrays.asList(frame.getWindowStateListeners()).contains(windowStateListener)) {
+            frame.addWindowStateListener(windowStateListener);
+        }
+    }
+}
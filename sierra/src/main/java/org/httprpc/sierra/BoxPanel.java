@@ -73,26 +73,16 @@ public abstract class BoxPanel extends LayoutPanel {
 
     /**
      * Calculates the panel's baseline, as determined by the first component
-     * that reports a valid baseline.
+     * that reports a valid baseline. The result is cached until the panel's
+     * contents change.
      * {@inheritDoc}
      */
     @Override
     public int getBaseline(int width, int height) {
-        setSize(width, height);
-        validate();
-
-        var n = getComponentCount();
-
-        for (var i = 0; i < n; i++) {
-            var component = getComponent(i);
-
-            var baseline = component.getBaseline(component.getWidth(), component.getHeight());
-
-            if (baseline >= 0) {
-                return component.getY() + baseline;
-            }
+        if (getLayout() instanceof AbstractLayoutManager layoutManager) {
+            return layoutManager.getBaseline(width, height);
+        } else {
+            return -1;
         }
-
-        return -1;
     }
 }
@@ -16,107 +16,287 @@ package org.httprpc.sierra;
 
 import java.awt.Dimension;
 import java.awt.LayoutManager;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Arranges sub-components vertically in a column, pinning component edges to
  * the container's leading and trailing insets. The panel's preferred width is
  * determined as the maximum preferred width of its unweighted sub-components
  * plus horizontal insets. Preferred height is the total preferred height of
- * all unweighted sub-components, plus vertical insets.
+ * all unweighted sub-components, plus vertical insets. Invisible
+ * sub-components are ignored.
  */
 public class ColumnPanel extends BoxPanel {
+    // Grid column widths and weights
+    static class GridTracks {
+        private int[] widths = new int[8];
+        private double[] weights = new double[8];
+
+        // Tracks created for hidden cells are filled by the first visible cell in the column
+        private boolean[] empty = new boolean[8];
+
+        private int count = 0;
+
+        private int spacing = 0;
+
+        // Incremented whenever the tracks are rebuilt, so that rows can tell whether they were counted
+        private int version = 0;
+
+        int size() {
+            return count;
+        }
+
+        void clear() {
+            count = 0;
+
+            version++;
+        }
+
+        void add(int width, double weight) {
+            add(width, weight, false);
+        }
+
+        void addEmpty() {
+            add(0, Double.NaN, true);
+        }
+
+        private void add(int width, double weight, boolean empty) {
+            if (count == widths.length) {
+                var capacity = count * 2;
+
+                widths = Arrays.copyOf(widths, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+
+                this.empty = Arrays.copyOf(this.empty, capacity);
+            }
+
+            widths[count] = width;
+            weights[count] = weight;
+
+            this.empty[count] = empty;
+
+            count++;
+        }
+
+        boolean isEmpty(int index) {
+            return empty[index];
+        }
+
+        void set(int index, int width, double weight) {
+            widths[index] = width;
+            weights[index] = weight;
+
+            empty[index] = false;
+        }
+
+        int getWidth(int index) {
+            return widths[index];
+        }
+
+        void setWidth(int index, int width) {
+            widths[index] = width;
+        }
+
+        double getWeight(int index) {
+            return weights[index];
+        }
+
+        void setWeight(int index, double weight) {
+            weights[index] = weight;
+        }
+
+        int getSpacing() {
+            return spacing;
+        }
+
+        int getVersion() {
+            return version;
+        }
+
+        void update(BoxPanel boxPanel) {
+            clear();
+
+            var maximumRowSpacing = 0;
+
+            var n = boxPanel.getComponentCount();
+
+            for (var i = 0; i < n; i++) {
+                var component = boxPanel.getComponent(i);
+
+                if (component.isVisible() && Double.isNaN(boxPanel.getWeight(i)) && component instanceof RowPanel rowPanel) {
+                    rowPanel.updateGridTracks(this, Integer.MAX_VALUE);
+
+                    maximumRowSpacing = Math.max(maximumRowSpacing, rowPanel.getSpacing());
+                }
+            }
+
+            spacing = Math.max(boxPanel.getSpacing(), maximumRowSpacing);
+        }
+
+        int getTotalWidth() {
+            var totalWidth = 0;
+
+            for (var i = 0; i < count; i++) {
+                totalWidth += widths[i];
+            }
+
+            return totalWidth;
+        }
+    }
+
     // Column layout manager
     private class ColumnLayoutManager extends AbstractLayoutManager {
+        // Calculated component bounds
+        private int[] widths = new int[0];
+        private int[] heights = new int[0];
+
+        private int[] ys = new int[0];
+
         @Override
-        public Dimension preferredLayoutSize() {
-            columnWidths.clear();
-            columnWeights.clear();
+        protected void invalidateCache() {
+            super.invalidateCache();
 
-            maximumRowSpacing = 0;
+            gridTracksValid = false;
 
-            var size = getSize();
-            var insets = getInsets();
+            // Row sizes depend on the calculated column widths
+            var n = getComponentCount();
 
-            var width = Math.max(size.width - (insets.left + insets.right), 0);
+            for (var i = 0; i < n; i++) {
+                if (getComponent(i) instanceof RowPanel rowPanel && rowPanel.getLayout() instanceof AbstractLayoutManager layoutManager) {
+                    layoutManager.invalidateCache();
+                }
+            }
+        }
+
+        @Override
+        protected Dimension preferredLayoutSize(int width, int height) {
+            var insets = getInsets(ColumnPanel.this);
+
+            width = Math.max(width - (insets.left + insets.right), 0);
 
             var preferredWidth = 0;
             var preferredHeight = 0;
 
             var n = getComponentCount();
 
+            var count = 0;
+
             for (var i = 0; i < n; i++) {
                 var component = getComponent(i);
 
-                if (Double.isNaN(getWeight(i))) {
-                    component.setSize(width, Integer.MAX_VALUE);
+                if (!component.isVisible()) {
+                    continue;
+                }
 
-                    if (alignToGrid && component instanceof RowPanel rowPanel) {
-                        component.doLayout();
+                count++;
 
-                        maximumRowSpacing = Math.max(maximumRowSpacing, rowPanel.getSpacing());
-                    } else {
-                        var preferredSize = component.getPreferredSize();
+                if (Double.isNaN(getWeight(i)) && !(alignToGrid && component instanceof RowPanel)) {
+                    var preferredSize = getComponentSize(component, i, width, Integer.MAX_VALUE);
 
-                        preferredWidth = Math.max(preferredWidth, preferredSize.width);
-                        preferredHeight += preferredSize.height;
-                    }
+                    preferredWidth = Math.max(preferredWidth, preferredSize.width);
+                    preferredHeight += preferredSize.height;
                 }
             }
 
             if (alignToGrid) {
-                var totalColumnWidth = columnWidths.stream().reduce(0, Integer::sum);
+                var gridTracks = getGridTracks();
 
-                preferredWidth = totalColumnWidth + (columnWidths.size() - 1) * getRowSpacing();
+                preferredWidth = gridTracks.getTotalWidth() + (gridTracks.size() - 1) * gridTracks.getSpacing();
 
                 for (var i = 0; i < n; i++) {
                     var component = getComponent(i);
 
-                    if (Double.isNaN(getWeight(i)) && component instanceof RowPanel) {
-                        preferredHeight += component.getPreferredSize().height;
+                    if (component.isVisible() && Double.isNaN(getWeight(i)) && component instanceof RowPanel) {
+                        preferredHeight += getComponentSize(component, i, width, Integer.MAX_VALUE).height;
                     }
                 }
             }
 
-            preferredHeight += getSpacing() * (n - 1);
+            preferredHeight += getSpacing() * Math.max(count - 1, 0);
 
-            return new Dimension(preferredWidth + insets.left + insets.right, preferredHeight + insets.top + insets.bottom);
+            return layoutSize(preferredWidth + insets.left + insets.right, preferredHeight + insets.top + insets.bottom);
+        }
+
+        @Override
+        protected int calculateBaseline(int width, int height) {
+            calculateLayout(width, height);
+
+            var n = getComponentCount();
+
+            for (var i = 0; i < n; i++) {
+                var component = getComponent(i);
+
+                if (!component.isVisible()) {
+                    continue;
+                }
+
+                var baseline = component.getBaseline(widths[i], heights[i]);
+
+                if (baseline >= 0) {
+                    return ys[i] + baseline;
+                }
+            }
+
+            return -1;
         }
 
         @Override
         public void layoutContainer() {
-            columnWidths.clear();
-            columnWeights.clear();
+            calculateLayout(getWidth(), getHeight());
 
-            maximumRowSpacing = 0;
+            var left = getInsets(ColumnPanel.this).left;
 
-            var size = getSize();
-            var insets = getInsets();
+            var n = getComponentCount();
+
+            for (var i = 0; i < n; i++) {
+                var component = getComponent(i);
+
+                if (component.isVisible()) {
+                    component.setBounds(left, ys[i], widths[i], heights[i]);
+                }
+            }
+        }
 
-            var width = Math.max(size.width - (insets.left + insets.right), 0);
+        private void calculateLayout(int width, int height) {
+            var insets = getInsets(ColumnPanel.this);
+
+            width = Math.max(width - (insets.left + insets.right), 0);
 
             var totalWeight = 0.0;
-            var excessHeight = Math.max(size.height - (insets.top + insets.bottom), 0);
+            var excessHeight = Math.max(height - (insets.top + insets.bottom), 0);
 
             var n = getComponentCount();
 
+            if (heights.length < n) {
+                widths = new int[n];
+                heights = new int[n];
+
+                ys = new int[n];
+            }
+
+            var count = 0;
+            var last = -1;
+
             for (var i = 0; i < n; i++) {
                 var component = getComponent(i);
 
-                var weight = getWeight(i);
+                if (!component.isVisible()) {
+                    continue;
+                }
 
-                if (Double.isNaN(weight)) {
-                    component.setSize(width, Integer.MAX_VALUE);
+                count++;
+                last = i;
 
-                    if (alignToGrid && component instanceof RowPanel rowPanel) {
-                        component.doLayout();
+                var weight = getWeight(i);
 
-                        maximumRowSpacing = Math.max(maximumRowSpacing, rowPanel.getSpacing());
-                    } else {
-                        component.setSize(width, component.getPreferredSize().height);
+                if (Double.isNaN(weight)) {
+                    if (!(alignToGrid && component instanceof RowPanel)) {
+                        heights[i] = getComponentSize(component, i, width, Integer.MAX_VALUE).height;
 
-                        excessHeight -= component.getHeight();
+                        excessHeight -= heights[i];
                     }
                 } else {
                     totalWeight += weight;
@@ -127,52 +307,51 @@ public class ColumnPanel extends BoxPanel {
                 for (var i = 0; i < n; i++) {
                     var component = getComponent(i);
 
-                    if (Double.isNaN(getWeight(i)) && component instanceof RowPanel) {
-                        component.setSize(component.getWidth(), component.getPreferredSize().height);
+                    if (component.isVisible() && Double.isNaN(getWeight(i)) && component instanceof RowPanel) {
+                        heights[i] = getComponentSize(component, i, width, Integer.MAX_VALUE).height;
 
-                        excessHeight -= component.getHeight();
+                        excessHeight -= heights[i];
                     }
                 }
             }
 
             var spacing = getSpacing();
 
-            excessHeight = Math.max(0, excessHeight - spacing * (n - 1));
+            excessHeight = Math.max(0, excessHeight - spacing * Math.max(count - 1, 0));
 
             var remainingHeight = excessHeight;
 
             var y = insets.top;
 
             for (var i = 0; i < n; i++) {
-                var component = getComponent(i);
-
-                component.setLocation(insets.left, y);
+                if (!getComponent(i).isVisible()) {
+                    continue;
+                }
 
                 var weight = getWeight(i);
 
                 if (!Double.isNaN(weight)) {
-                    if (i < n - 1) {
-                        var height = (int)Math.round(excessHeight * (weight / totalWeight));
-
-                        component.setSize(width, height);
+                    if (i < last) {
+                        heights[i] = (int)Math.round(excessHeight * (weight / totalWeight));
 
-                        remainingHeight -= height;
+                        remainingHeight -= heights[i];
                     } else {
-                        component.setSize(width, remainingHeight);
+                        heights[i] = remainingHeight;
                     }
                 }
 
-                y += component.getHeight() + spacing;
+                widths[i] = width;
+                ys[i] = y;
+
+                y += heights[i] + spacing;
             }
         }
     }
 
     private boolean alignToGrid = false;
 
-    private List<Integer> columnWidths = new LinkedList<>();
-    private List<Double> columnWeights = new LinkedList<>();
-
-    private int maximumRowSpacing= 0;
+    private GridTracks gridTracks = new GridTracks();
+    private boolean gridTracksValid = false;
 
     /**
      * Constructs a new column panel.
@@ -225,7 +404,17 @@ public class ColumnPanel extends BoxPanel {
      * The calculated column widths.
      */
     protected List<Integer> getColumnWidths() {
-        return columnWidths;
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return gridTracks.getWidth(Objects.checkIndex(index, gridTracks.size()));
+            }
+
+            @Override
+            public int size() {
+                return gridTracks.size();
+            }
+        };
     }
 
     /**
@@ -235,7 +424,31 @@ public class ColumnPanel extends BoxPanel {
      * The calculated column weights.
      */
     protected List<Double> getColumnWeights() {
-        return columnWeights;
+        return new AbstractList<>() {
+            @Override
+            public Double get(int index) {
+                return gridTracks.getWeight(Objects.checkIndex(index, gridTracks.size()));
+            }
+
+            @Override
+            public int size() {
+                return gridTracks.size();
+            }
+        };
+    }
+
+    GridTracks getGridTracks() {
+        if (!gridTracksValid) {
+            if (alignToGrid) {
+                gridTracks.update(this);
+            } else {
+                gridTracks.clear();
+            }
+
+            gridTracksValid = true;
+        }
+
+        return gridTracks;
     }
 
     /**
@@ -245,6 +458,6 @@ public class ColumnPanel extends BoxPanel {
      * The calculated row spacing.
      */
     protected int getRowSpacing() {
-        return Math.max(getSpacing(), maximumRowSpacing);
+        return alignToGrid ? getGridTracks().getSpacing() : getSpacing();
     }
 }
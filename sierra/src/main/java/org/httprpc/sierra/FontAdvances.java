@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches character advance widths for a font and font render context. Tables
+ * may be shared by multiple threads.
+ */
+class FontAdvances {
+    private record Key(Font font, FontRenderContext fontRenderContext) {
+    }
+
+    private Font font;
+    private FontRenderContext fontRenderContext;
+
+    // Advances are stored in pages of 256 characters, which are allocated on demand and published atomically; NaN
+    // entries have not been measured, so an entry written by another thread but not yet visible is simply measured again
+    private AtomicReferenceArray<double[]> pages = new AtomicReferenceArray<>(256);
+
+    private static final int MAXIMUM_INSTANCE_COUNT = 32;
+
+    private static final Map<Key, FontAdvances> instances = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, FontAdvances> eldest) {
+            return size() > MAXIMUM_INSTANCE_COUNT;
+        }
+    };
+
+    private FontAdvances(Font font, FontRenderContext fontRenderContext) {
+        this.font = font;
+        this.fontRenderContext = fontRenderContext;
+    }
+
+    static FontAdvances getInstance(Font font, FontRenderContext fontRenderContext) {
+        synchronized (instances) {
+            return instances.computeIfAbsent(new Key(font, fontRenderContext), key -> new FontAdvances(key.font(), key.fontRenderContext()));
+        }
+    }
+
+    double getAdvance(char c) {
+        var page = pages.get(c >>> 8);
+
+        if (page == null) {
+            page = new double[256];
+
+            Arrays.fill(page, Double.NaN);
+
+            // Another thread may have created the page first
+            if (!pages.compareAndSet(c >>> 8, null, page)) {
+                page = pages.get(c >>> 8);
+            }
+        }
+
+        var i = c & 0xff;
+
+        var advance = page[i];
+
+        if (Double.isNaN(advance)) {
+            // Matches the width reported when measuring the character on its own
+            advance = font.getStringBounds(new char[] {c}, 0, 1, fontRenderContext).getWidth();
+
+            page[i] = advance;
+        }
+
+        return advance;
+    }
+}
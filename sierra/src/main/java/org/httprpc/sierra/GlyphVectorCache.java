@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.text.StringCharacterIterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shares glyph vectors for frequently displayed lines of text.
+ */
+class GlyphVectorCache {
+    private record Key(Font font, FontRenderContext fontRenderContext, String text) {
+    }
+
+    // Longer lines are rarely repeated and are not cached
+    private static final int MAXIMUM_LINE_LENGTH = 256;
+
+    private static int capacity = 1024;
+
+    private static long hitCount = 0;
+    private static long missCount = 0;
+    private static long evictionCount = 0;
+
+    private static final Map<Key, GlyphVector> glyphVectors = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, GlyphVector> eldest) {
+            if (size() > capacity) {
+                evictionCount++;
+
+                return true;
+            } else {
+                return false;
+            }
+        }
+    };
+
+    private GlyphVectorCache() {
+    }
+
+    static GlyphVector getGlyphVector(Font font, FontRenderContext fontRenderContext, String text, int start, int end) {
+        if (end - start > MAXIMUM_LINE_LENGTH) {
+            return font.createGlyphVector(fontRenderContext, new StringCharacterIterator(text, start, end, start));
+        }
+
+        var key = new Key(font, fontRenderContext, text.substring(start, end));
+
+        synchronized (glyphVectors) {
+            if (capacity == 0) {
+                return font.createGlyphVector(fontRenderContext, key.text());
+            }
+
+            var glyphVector = glyphVectors.get(key);
+
+            if (glyphVector != null) {
+                hitCount++;
+
+                return glyphVector;
+            }
+
+            missCount++;
+        }
+
+        var glyphVector = font.createGlyphVector(fontRenderContext, key.text());
+
+        synchronized (glyphVectors) {
+            if (capacity == 0) {
+                return glyphVector;
+            }
+
+            var existingGlyphVector = glyphVectors.putIfAbsent(key, glyphVector);
+
+            return (existingGlyphVector == null) ? glyphVector : existingGlyphVector;
+        }
+    }
+
+    static int getCapacity() {
+        synchronized (glyphVectors) {
+            return capacity;
+        }
+    }
+
+    static void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        synchronized (glyphVectors) {
+            GlyphVectorCache.capacity = capacity;
+
+            var iterator = glyphVectors.values().iterator();
+
+            while (glyphVectors.size() > capacity) {
+                iterator.next();
+                iterator.remove();
+
+                evictionCount++;
+            }
+        }
+    }
+
+    static long getHitCount() {
+        synchronized (glyphVectors) {
+            return hitCount;
+        }
+    }
+
+    static long getMissCount() {
+        synchronized (glyphVectors) {
+            return missCount;
+        }
+    }
+
+    static long getEvictionCount() {
+        synchronized (glyphVectors) {
+            return evictionCount;
+        }
+    }
+
+    static void resetStatistics() {
+        synchronized (glyphVectors) {
+            hitCount = 0;
+            missCount = 0;
+            evictionCount = 0;
+        }
+    }
+}
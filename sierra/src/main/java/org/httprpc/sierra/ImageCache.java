@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shares decoded images between image panes that display the same source.
+ */
+class ImageCache {
+    private record Key(Object imageKey, int subsampling) {
+    }
+
+    record CachedImage(BufferedImage image, int subsampling) {
+    }
+
+    private static class SoftImage extends SoftReference<BufferedImage> {
+        final Key key;
+
+        SoftImage(Key key, BufferedImage image) {
+            super(image, referenceQueue);
+
+            this.key = key;
+        }
+    }
+
+    // Source dimensions are small, so they are retained for more images than are decoded
+    private static final int MAXIMUM_SOURCE_DIMENSIONS_COUNT = 4096;
+
+    private static long limit = 64L * 1024 * 1024;
+    private static long size = 0;
+
+    private static long hitCount = 0;
+    private static long missCount = 0;
+    private static long evictionCount = 0;
+
+    private static final Map<Key, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Images evicted from the budget remain available until the garbage collector reclaims them
+    private static final Map<Key, SoftImage> softImages = new HashMap<>();
+
+    private static final ReferenceQueue<BufferedImage> referenceQueue = new ReferenceQueue<>();
+
+    private static final Map<Object, Dimension> sourceDimensions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Dimension> eldest) {
+            return size() > MAXIMUM_SOURCE_DIMENSIONS_COUNT;
+        }
+    };
+
+    private ImageCache() {
+    }
+
+    static Dimension getSourceDimensions(Object imageKey) {
+        synchronized (images) {
+            return sourceDimensions.get(imageKey);
+        }
+    }
+
+    static CachedImage get(Object imageKey, int subsampling) {
+        synchronized (images) {
+            // Images decoded at up to twice the required resolution are also displayed, so panes of similar size
+            // share an image
+            for (var i = subsampling; i >= Math.max(subsampling / 2, 1); i--) {
+                var key = new Key(imageKey, i);
+
+                var image = images.get(key);
+
+                if (image == null) {
+                    var softImage = softImages.remove(key);
+
+                    if (softImage != null) {
+                        image = softImage.get();
+
+                        if (image != null) {
+                            put(key, image);
+                        }
+                    }
+                }
+
+                if (image != null) {
+                    hitCount++;
+
+                    return new CachedImage(image, i);
+                }
+            }
+
+            missCount++;
+
+            return null;
+        }
+    }
+
+    static void put(Object imageKey, Dimension sourceDimensions, int subsampling, BufferedImage image) {
+        synchronized (images) {
+            ImageCache.sourceDimensions.put(imageKey, sourceDimensions);
+
+            if (limit == 0) {
+                return;
+            }
+
+            put(new Key(imageKey, subsampling), image);
+        }
+    }
+
+    private static void put(Key key, BufferedImage image) {
+        // Images that exceed the limit on their own are not allowed to evict other images
+        if (getSize(image) > limit) {
+            softImages.put(key, new SoftImage(key, image));
+
+            return;
+        }
+
+        var previousImage = images.put(key, image);
+
+        if (previousImage != null) {
+            size -= getSize(previousImage);
+        }
+
+        size += getSize(image);
+
+        trim();
+    }
+
+    private static void trim() {
+        var iterator = images.entrySet().iterator();
+
+        while (size > limit && iterator.hasNext()) {
+            var entry = iterator.next();
+
+            size -= getSize(entry.getValue());
+
+            softImages.put(entry.getKey(), new SoftImage(entry.getKey(), entry.getValue()));
+
+            iterator.remove();
+
+            evictionCount++;
+        }
+
+        // References cleared by the garbage collector are discarded as the cache is updated
+        for (var reference = referenceQueue.poll(); reference != null; reference = referenceQueue.poll()) {
+            var softImage = (SoftImage)reference;
+
+            softImages.remove(softImage.key, softImage);
+        }
+    }
+
+    private static long getSize(BufferedImage image) {
+        return (long)image.getWidth() * image.getHeight() * 4;
+    }
+
+    static long getLimit() {
+        synchronized (images) {
+            return limit;
+        }
+    }
+
+    static void setLimit(long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        synchronized (images) {
+            ImageCache.limit = limit;
+
+            trim();
+
+            if (limit == 0) {
+                softImages.clear();
+            }
+        }
+    }
+
+    static long getSize() {
+        synchronized (images) {
+            return size;
+        }
+    }
+
+    static long getHitCount() {
+        synchronized (images) {
+            return hitCount;
+        }
+    }
+
+    static long getMissCount() {
+        synchronized (images) {
+            return missCount;
+        }
+    }
+
+    static long getEvictionCount() {
+        synchronized (images) {
+            return evictionCount;
+        }
+    }
+
+    static void resetStatistics() {
+        synchronized (images) {
+            hitCount = 0;
+            missCount = 0;
+            evictionCount = 0;
+        }
+    }
+}
@@ -14,17 +14,35 @@
 
 package org.httprpc.sierra;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
 import javax.swing.plaf.ComponentUI;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiConsumer;
 
 /**
  * Displays an image.
  */
-public class ImagePane extends JComponent {
+public class ImagePane extends JComponent implements SizeDependent {
     /**
      * Image scaling options.
      */
@@ -59,18 +77,23 @@ public class ImagePane extends JComponent {
 
         @Override
         public Dimension getPreferredSize(JComponent component) {
-            if (image == null) {
+            return getPreferredSize(getWidth(), getHeight());
+        }
+
+        private Dimension getPreferredSize(int width, int height) {
+            var image = getDisplayedImage();
+
+            if (image == null && !hasTiles()) {
                 return new Dimension(0, 0);
             }
 
-            var size = getSize();
             var insets = getInsets();
 
-            var width = Math.max(size.width - (insets.left + insets.right), 0);
-            var height = Math.max(size.height - (insets.top + insets.bottom), 0);
+            width = Math.max(width - (insets.left + insets.right), 0);
+            height = Math.max(height - (insets.top + insets.bottom), 0);
 
-            var imageWidth = image.getWidth(null);
-            var imageHeight = image.getHeight(null);
+            var imageWidth = (image == null) ? imageTiles.getWidth() : image.getWidth(null);
+            var imageHeight = (image == null) ? imageTiles.getHeight() : image.getHeight(null);
 
             var scale = getScale(width, height, imageWidth, imageHeight);
 
@@ -91,7 +114,9 @@ public class ImagePane extends JComponent {
         }
 
         private void paint(Graphics2D graphics) {
-            if (image == null) {
+            var image = getDisplayedImage();
+
+            if (image == null && !hasTiles()) {
                 return;
             }
 
@@ -101,8 +126,8 @@ public class ImagePane extends JComponent {
             var width = Math.max(size.width - (insets.left + insets.right), 0);
             var height = Math.max(size.height - (insets.top + insets.bottom), 0);
 
-            var imageWidth = image.getWidth(null);
-            var imageHeight = image.getHeight(null);
+            var imageWidth = (image == null) ? imageTiles.getWidth() : image.getWidth(null);
+            var imageHeight = (image == null) ? imageTiles.getHeight() : image.getHeight(null);
 
             var scale = getScale(width, height, imageWidth, imageHeight);
 
@@ -129,16 +154,200 @@ public class ImagePane extends JComponent {
 
             graphics = (Graphics2D)graphics.create();
 
-            graphics.setClip(insets.left, insets.top, width, height);
+            graphics.clipRect(insets.left, insets.top, width, height);
 
             graphics.translate(x + insets.left, y + insets.top);
-            graphics.scale(scale, scale);
 
-            graphics.drawImage(image, 0, 0, null);
+            if (image == null) {
+                paintTiles(graphics, scale);
+
+                graphics.dispose();
+
+                return;
+            }
+
+            var sourceImage = getMipMap(image, imageWidth, imageHeight, scale * graphics.getTransform().getScaleX());
+
+            var scaledImage = getScaledImage(graphics, sourceImage, imageWidth, imageHeight, scale);
+
+            if (scaledImage != null) {
+                // The scaled image is drawn at device resolution, aligned to the nearest device pixel
+                var transform = graphics.getTransform();
+
+                graphics.setTransform(AffineTransform.getTranslateInstance(Math.round(transform.getTranslateX()), Math.round(transform.getTranslateY())));
+
+                graphics.drawImage(scaledImage, 0, 0, null);
+            } else {
+                if (sourceImage != image) {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                }
+
+                graphics.scale(scale * imageWidth / sourceImage.getWidth(null), scale * imageHeight / sourceImage.getHeight(null));
+
+                graphics.drawImage(sourceImage, 0, 0, null);
+            }
 
             graphics.dispose();
         }
 
+        private Image getMipMap(Image image, int imageWidth, int imageHeight, double scale) {
+            // Mip maps are only built in the background, for images that are reduced to less than half their size
+            if (taskExecutor == null || scale > 0.5) {
+                return image;
+            }
+
+            if (mipMapSource != image) {
+                mipMaps = List.of();
+                mipMapSource = image;
+
+                pendingMipMapLevel = 0;
+            }
+
+            // The required level is the smallest one that is at least as large as the scaled image
+            var level = 0;
+
+            for (var levelScale = 0.5; levelScale >= scale && (imageWidth >> (level + 1)) > 0 && (imageHeight >> (level + 1)) > 0; levelScale /= 2) {
+                level++;
+            }
+
+            if (level > mipMaps.size() && level > pendingMipMapLevel) {
+                buildMipMaps(level);
+            }
+
+            // Until the required level is available, the nearest larger level is used
+            var n = Math.min(level, mipMaps.size());
+
+            return (n == 0) ? image : mipMaps.get(n - 1);
+        }
+
+        private void paintTiles(Graphics2D graphics, double scale) {
+            var deviceScale = graphics.getTransform().getScaleX();
+
+            // Tiles are decoded at the largest power-of-two subsampling that does not drop below device resolution
+            var subsampling = 1;
+            var maximumSubsampling = imageTiles.getMaximumSubsampling();
+
+            while (subsampling < maximumSubsampling && subsampling * 2 * scale * deviceScale <= 1.0) {
+                subsampling *= 2;
+            }
+
+            graphics.scale(scale, scale);
+
+            var clipBounds = graphics.getClipBounds();
+
+            var tileSize = ImageTiles.TILE_SIZE * subsampling;
+
+            var firstColumn = Math.max(Math.floorDiv(clipBounds.x, tileSize), 0);
+            var lastColumn = Math.min(Math.floorDiv(clipBounds.x + clipBounds.width, tileSize), (imageTiles.getWidth() - 1) / tileSize);
+
+            var firstRow = Math.max(Math.floorDiv(clipBounds.y, tileSize), 0);
+            var lastRow = Math.min(Math.floorDiv(clipBounds.y + clipBounds.height, tileSize), (imageTiles.getHeight() - 1) / tileSize);
+
+            var visibleKeys = new HashSet<ImageTiles.Key>();
+            var missingKeys = new ArrayList<ImageTiles.Key>();
+
+            for (var row = firstRow; row <= lastRow; row++) {
+                for (var column = firstColumn; column <= lastColumn; column++) {
+                    var key = new ImageTiles.Key(subsampling, column, row);
+
+                    visibleKeys.add(key);
+
+                    if (!imageTiles.contains(key)) {
+                        missingKeys.add(key);
+                    }
+                }
+            }
+
+            imageTiles.setVisibleKeys(visibleKeys);
+
+            if (!missingKeys.isEmpty()) {
+                loadTiles(missingKeys);
+            }
+
+            for (var row = firstRow; row <= lastRow; row++) {
+                for (var column = firstColumn; column <= lastColumn; column++) {
+                    var tile = imageTiles.get(new ImageTiles.Key(subsampling, column, row));
+
+                    if (tile != null) {
+                        graphics.drawImage(tile, new AffineTransform(subsampling, 0, 0, subsampling, column * tileSize, row * tileSize), null);
+                    } else {
+                        paintCoarseTile(graphics, subsampling, column, row);
+                    }
+                }
+            }
+        }
+
+        private void paintCoarseTile(Graphics2D graphics, int subsampling, int column, int row) {
+            // Tiles that have not been decoded yet are covered by the nearest coarser tile, if any
+            var tileSize = ImageTiles.TILE_SIZE * subsampling;
+
+            var x = column * tileSize;
+            var y = row * tileSize;
+
+            var maximumSubsampling = imageTiles.getMaximumSubsampling();
+
+            for (var coarseSubsampling = subsampling * 2; coarseSubsampling <= maximumSubsampling; coarseSubsampling *= 2) {
+                var coarseTileSize = ImageTiles.TILE_SIZE * coarseSubsampling;
+
+                var coarseColumn = x / coarseTileSize;
+                var coarseRow = y / coarseTileSize;
+
+                var coarseTile = imageTiles.get(new ImageTiles.Key(coarseSubsampling, coarseColumn, coarseRow));
+
+                if (coarseTile != null) {
+                    var coarseGraphics = (Graphics2D)graphics.create();
+
+                    coarseGraphics.clipRect(x, y, tileSize, tileSize);
+
+                    coarseGraphics.drawImage(coarseTile, new AffineTransform(coarseSubsampling, 0, 0, coarseSubsampling,
+                        coarseColumn * coarseTileSize, coarseRow * coarseTileSize), null);
+
+                    coarseGraphics.dispose();
+
+                    return;
+                }
+            }
+        }
+
+        private BufferedImage getScaledImage(Graphics2D graphics, Image image, int imageWidth, int imageHeight, double scale) {
+            var transform = graphics.getTransform();
+
+            // Only scaling and translation can be applied to a cached image
+            if (scaledImageCacheLimit == 0 || (transform.getType() & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_MASK_SCALE)) != 0) {
+                return null;
+            }
+
+            var scaledImageWidth = (int)Math.round(imageWidth * scale * transform.getScaleX());
+            var scaledImageHeight = (int)Math.round(imageHeight * scale * transform.getScaleY());
+
+            if (scaledImageWidth <= 0 || scaledImageHeight <= 0
+                || (scaledImageWidth == imageWidth && scaledImageHeight == imageHeight)
+                || (long)scaledImageWidth * scaledImageHeight * 4 > scaledImageCacheLimit) {
+                return null;
+            }
+
+            if (scaledImage == null || scaledImageSource != image
+                || scaledImage.getWidth() != scaledImageWidth || scaledImage.getHeight() != scaledImageHeight) {
+                scaledImage = graphics.getDeviceConfiguration().createCompatibleImage(scaledImageWidth, scaledImageHeight, Transparency.TRANSLUCENT);
+
+                var scaledImageGraphics = scaledImage.createGraphics();
+
+                scaledImageGraphics.setRenderingHints(graphics.getRenderingHints());
+
+                // Mip maps are reduced by less than half, so bilinear filtering does not skip any pixels
+                if (image != ImagePane.this.image) {
+                    scaledImageGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                }
+
+                scaledImageGraphics.drawImage(image, 0, 0, scaledImageWidth, scaledImageHeight, null);
+                scaledImageGraphics.dispose();
+
+                scaledImageSource = image;
+            }
+
+            return scaledImage;
+        }
+
         private double getScale(int width, int height, int imageWidth, int imageHeight) {
             return switch (scaleMode) {
                 case NONE -> 1.0;
@@ -148,13 +357,119 @@ public class ImagePane extends JComponent {
         }
     }
 
+    // Image decoding state
+    private static class ImageLoad implements IIOReadProgressListener {
+        final ScaleMode scaleMode;
+        final int targetSize;
+
+        volatile boolean cancelled = false;
+
+        Dimension sourceDimensions = null;
+
+        int subsampling = 1;
+        int sourceSize = 0;
+
+        ImageLoad(ScaleMode scaleMode, int targetSize) {
+            this.scaleMode = scaleMode;
+            this.targetSize = targetSize;
+        }
+
+        void setSourceDimensions(Dimension sourceDimensions) {
+            this.sourceDimensions = sourceDimensions;
+
+            sourceSize = switch (scaleMode) {
+                case NONE -> 0;
+                case FILL_WIDTH -> sourceDimensions.width;
+                case FILL_HEIGHT -> sourceDimensions.height;
+            };
+
+            subsampling = getSubsampling(sourceSize, targetSize);
+        }
+
+        @Override
+        public void imageProgress(ImageReader source, float percentageDone) {
+            // Readers may only be aborted from the thread that is reading
+            if (cancelled) {
+                source.abort();
+            }
+        }
+
+        @Override
+        public void sequenceStarted(ImageReader source, int minIndex) {
+            // No-op
+        }
+
+        @Override
+        public void sequenceComplete(ImageReader source) {
+            // No-op
+        }
+
+        @Override
+        public void imageStarted(ImageReader source, int imageIndex) {
+            // No-op
+        }
+
+        @Override
+        public void imageComplete(ImageReader source) {
+            // No-op
+        }
+
+        @Override
+        public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
+            // No-op
+        }
+
+        @Override
+        public void thumbnailProgress(ImageReader source, float percentageDone) {
+            // No-op
+        }
+
+        @Override
+        public void thumbnailComplete(ImageReader source) {
+            // No-op
+        }
+
+        @Override
+        public void readAborted(ImageReader source) {
+            // No-op
+        }
+    }
+
     private Image image;
+    private Image placeholder = null;
+
+    private Object imageKey = null;
+    private Callable<? extends InputStream> imageSource = null;
+
+    private ImageLoad imageLoad = null;
+    private ImageLoad pendingImageLoad = null;
+
+    private boolean tiled = false;
+
+    private ImageTiles imageTiles = null;
+    private ImageTiles pendingImageTiles = null;
+
+    private TaskExecutor taskExecutor = null;
 
     private ScaleMode scaleMode = ScaleMode.NONE;
 
     private HorizontalAlignment horizontalAlignment = HorizontalAlignment.CENTER;
     private VerticalAlignment verticalAlignment = VerticalAlignment.CENTER;
 
+    private BufferedImage scaledImage = null;
+    private Image scaledImageSource = null;
+
+    private List<BufferedImage> mipMaps = List.of();
+    private Image mipMapSource = null;
+
+    private int pendingMipMapLevel = 0;
+
+    // Incremented when scaled copies are released, so that levels built from an image's previous content are discarded
+    private int mipMapVersion = 0;
+
+    private static long scaledImageCacheLimit = 32L * 1024 * 1024;
+    private static long tileCacheLimit = 64L * 1024 * 1024;
+
     /**
      * Constructs an image pane.
      */
@@ -185,15 +500,160 @@ public class ImagePane extends JComponent {
     }
 
     /**
-     * Sets the image displayed by the component.
+     * Sets the image displayed by the component. If a task executor is set,
+     * reduced copies of the image are prepared in the background when it is
+     * scaled to less than half its size. Otherwise, the image is always
+     * scaled from its full resolution. Scaled copies are retained until an
+     * image is set, so an image that is modified after it has been set must be
+     * set again for the changes to be displayed.
      *
      * @param image
      * The image to display, or {@code null} for no image.
      */
     public void setImage(Image image) {
+        cancelImageLoad();
+
+        imageKey = null;
+        imageSource = null;
+        imageLoad = null;
+
+        imageTiles = null;
+
         this.image = image;
 
+        releaseScaledImages();
+
         revalidate();
+        repaint();
+    }
+
+    /**
+     * Sets the source from which the displayed image will be decoded. The
+     * image is decoded once the image pane has been laid out. If a task
+     * executor is set and the image is scaled to fill the available width or
+     * height, it is subsampled to the smallest resolution that will fill the
+     * pane, and decoded again if the pane later requires a higher resolution.
+     * Without a task executor, the image is decoded at full resolution on the
+     * UI thread, which does not respond to input until decoding is complete.
+     *
+     * @param imageSource
+     * A callback that opens the image data, or {@code null} for no image.
+     */
+    public void setImageSource(Callable<? extends InputStream> imageSource) {
+        setImageSource(null, imageSource);
+    }
+
+    /**
+     * Sets the source from which the displayed image will be decoded. Decoded
+     * images are shared with other image panes that specify an equal key, via
+     * an application-wide cache.
+     *
+     * @param imageKey
+     * The key that identifies the image source, or {@code null} if the decoded
+     * image will not be shared.
+     *
+     * @param imageSource
+     * A callback that opens the image data, or {@code null} for no image.
+     */
+    public void setImageSource(Object imageKey, Callable<? extends InputStream> imageSource) {
+        setImage(null);
+
+        this.imageKey = (imageSource == null) ? null : imageKey;
+        this.imageSource = imageSource;
+    }
+
+    /**
+     * Sets the file from which the displayed image will be decoded. The path
+     * is used as the image key.
+     *
+     * @param path
+     * The path to the image file, or {@code null} for no image.
+     */
+    public void setImageSource(Path path) {
+        setImageSource(path, (path == null) ? null : () -> Files.newInputStream(path));
+    }
+
+    /**
+     * Indicates that the image source will be decoded in tiles. The default
+     * value is {@code false}.
+     *
+     * @return
+     * {@code true} if the image source will be decoded in tiles;
+     * {@code false}, otherwise.
+     */
+    public boolean getTiled() {
+        return tiled;
+    }
+
+    /**
+     * Toggles tiled decoding. Tiled decoding is intended for very large
+     * images, such as scanned drawings displayed in a scroll pane. Only the
+     * tiles that intersect the visible area are decoded, at a resolution
+     * matching the current scale, and the most recently painted tiles are
+     * retained. Tiles are decoded on the UI thread unless a task executor is
+     * set.
+     *
+     * @param tiled
+     * {@code true} to decode the image source in tiles; {@code false},
+     * otherwise.
+     */
+    public void setTiled(boolean tiled) {
+        this.tiled = tiled;
+
+        // The image source is decoded again using the new mode
+        if (imageSource != null) {
+            setImageSource(imageKey, imageSource);
+        }
+    }
+
+    /**
+     * Returns the image displayed while the image is decoded.
+     *
+     * @return
+     * The placeholder image, or {@code null} for no placeholder.
+     */
+    public Image getPlaceholder() {
+        return placeholder;
+    }
+
+    /**
+     * Sets the image displayed while the image is decoded.
+     *
+     * @param placeholder
+     * The placeholder image, or {@code null} for no placeholder.
+     */
+    public void setPlaceholder(Image placeholder) {
+        this.placeholder = placeholder;
+
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Returns the task executor used to decode images in the background. The
+     * default value is {@code null}.
+     *
+     * @return
+     * The task executor, or {@code null} if images are decoded on the UI
+     * thread.
+     */
+    public TaskExecutor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    /**
+     * Sets the task executor used to decode images in the background. Without
+     * a task executor, image sources and tiles are decoded on the UI thread,
+     * outside of layout and painting but still blocking it while they decode.
+     * Images decoded on the UI thread are not subsampled, and no reduced
+     * copies are prepared for images that are scaled down. A task executor
+     * should be set for large images or slow image sources.
+     *
+     * @param taskExecutor
+     * The task executor, or {@code null} to decode images on the UI thread.
+     */
+    public void setTaskExecutor(TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
     }
 
     /**
@@ -275,4 +735,486 @@ public class ImagePane extends JComponent {
 
         repaint();
     }
+
+    /**
+     * Lays out the image pane.
+     * {@inheritDoc}
+     */
+    @Override
+    public void doLayout() {
+        if (imageSource == null || pendingImageLoad != null) {
+            return;
+        }
+
+        if (tiled) {
+            if (imageTiles == null && pendingImageTiles == null) {
+                openTiles();
+            }
+
+            return;
+        }
+
+        var targetSize = 0;
+
+        // Images are only subsampled when they can be decoded again in the background as the pane is resized
+        if (taskExecutor != null && scaleMode != ScaleMode.NONE) {
+            var insets = getInsets();
+
+            targetSize = switch (scaleMode) {
+                case NONE -> 0;
+                case FILL_WIDTH -> getWidth() - (insets.left + insets.right);
+                case FILL_HEIGHT -> getHeight() - (insets.top + insets.bottom);
+            };
+
+            // The pane must be laid out before the required resolution is known
+            if (targetSize <= 0) {
+                return;
+            }
+
+            var graphicsConfiguration = getGraphicsConfiguration();
+
+            if (graphicsConfiguration != null) {
+                var transform = graphicsConfiguration.getDefaultTransform();
+
+                var deviceScale = (scaleMode == ScaleMode.FILL_WIDTH) ? transform.getScaleX() : transform.getScaleY();
+
+                targetSize = (int)Math.ceil(targetSize * deviceScale);
+            }
+        }
+
+        // The current image is decoded again only when it is too heavily subsampled to fill the pane
+        if (imageLoad != null && (imageLoad.subsampling == 1
+            || (imageLoad.scaleMode == scaleMode && getSubsampling(imageLoad.sourceSize, targetSize) >= imageLoad.subsampling))) {
+            return;
+        }
+
+        var imageLoad = new ImageLoad(scaleMode, targetSize);
+
+        // Images decoded by other image panes are shared; until the source dimensions are known, only a full-resolution
+        // image can be used
+        if (imageKey != null) {
+            var sourceDimensions = ImageCache.getSourceDimensions(imageKey);
+
+            if (sourceDimensions != null) {
+                imageLoad.setSourceDimensions(sourceDimensions);
+            }
+
+            var cachedImage = ImageCache.get(imageKey, imageLoad.subsampling);
+
+            if (cachedImage != null) {
+                // The shared image may have been decoded at a higher resolution than was requested
+                imageLoad.subsampling = cachedImage.subsampling();
+
+                imageDecoded(imageLoad, cachedImage.image());
+
+                return;
+            }
+        }
+
+        pendingImageLoad = imageLoad;
+
+        var imageKey = this.imageKey;
+        var imageSource = this.imageSource;
+
+        execute(() -> decodeImage(imageSource, imageLoad), (image, exception) -> {
+            // Results of cancelled loads are discarded
+            if (imageLoad != pendingImageLoad) {
+                return;
+            }
+
+            if (exception != null) {
+                pendingImageLoad = null;
+
+                throw new RuntimeException(exception);
+            }
+
+            if (imageKey != null) {
+                ImageCache.put(imageKey, imageLoad.sourceDimensions, imageLoad.subsampling, image);
+            }
+
+            imageDecoded(imageLoad, image);
+        });
+    }
+
+    private <T> void execute(Callable<T> callable, BiConsumer<T, Exception> consumer) {
+        if (taskExecutor == null) {
+            // Without a task executor, images are decoded in a separate event on the UI thread, rather than during layout or painting
+            SwingUtilities.invokeLater(() -> {
+                T result;
+                try {
+                    result = callable.call();
+                } catch (Exception exception) {
+                    consumer.accept(null, exception);
+
+                    return;
+                }
+
+                consumer.accept(result, null);
+            });
+        } else {
+            taskExecutor.execute(callable, consumer);
+        }
+    }
+
+    private static BufferedImage decodeImage(Callable<? extends InputStream> imageSource, ImageLoad imageLoad) throws IOException {
+        try (var inputStream = imageSource.call(); var imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            var imageReaders = ImageIO.getImageReaders(imageInputStream);
+
+            if (!imageReaders.hasNext()) {
+                throw new IOException("Unsupported image format.");
+            }
+
+            var imageReader = imageReaders.next();
+
+            try {
+                imageReader.setInput(imageInputStream, true, true);
+
+                imageReader.addIIOReadProgressListener(imageLoad);
+
+                if (imageLoad.cancelled) {
+                    throw new CancellationException();
+                }
+
+                imageLoad.setSourceDimensions(new Dimension(imageReader.getWidth(0), imageReader.getHeight(0)));
+
+                var imageReadParam = imageReader.getDefaultReadParam();
+
+                imageReadParam.setSourceSubsampling(imageLoad.subsampling, imageLoad.subsampling, 0, 0);
+
+                var image = imageReader.read(0, imageReadParam);
+
+                if (imageLoad.cancelled) {
+                    throw new CancellationException();
+                }
+
+                return image;
+            } finally {
+                imageReader.dispose();
+            }
+        } catch (IOException | RuntimeException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    private static int getSubsampling(int sourceSize, int targetSize) {
+        return (targetSize == 0) ? 1 : Math.max(sourceSize / targetSize, 1);
+    }
+
+    private void imageDecoded(ImageLoad imageLoad, BufferedImage image) {
+        pendingImageLoad = null;
+
+        this.imageLoad = imageLoad;
+
+        this.image = image;
+
+        releaseScaledImages();
+
+        revalidate();
+        repaint();
+    }
+
+    private void openTiles() {
+        var imageTiles = new ImageTiles(imageSource);
+
+        pendingImageTiles = imageTiles;
+
+        execute(imageTiles::readSize, (imageSize, exception) -> {
+            if (imageTiles != pendingImageTiles) {
+                return;
+            }
+
+            pendingImageTiles = null;
+
+            if (exception != null) {
+                throw new RuntimeException(exception);
+            }
+
+            tilesOpened(imageTiles, imageSize);
+        });
+    }
+
+    private void tilesOpened(ImageTiles imageTiles, Dimension imageSize) {
+        imageTiles.open(imageSize);
+
+        this.imageTiles = imageTiles;
+
+        revalidate();
+        repaint();
+    }
+
+    private void loadTiles(List<ImageTiles.Key> keys) {
+        var imageTiles = this.imageTiles;
+
+        // Tiles that have already been requested are not requested again
+        var requestedKeys = imageTiles.request(keys);
+
+        if (requestedKeys.isEmpty()) {
+            return;
+        }
+
+        execute(() -> imageTiles.decode(requestedKeys), (tiles, exception) -> {
+            imageTiles.complete(requestedKeys);
+
+            if (imageTiles != this.imageTiles) {
+                return;
+            }
+
+            if (exception != null) {
+                throw new RuntimeException(exception);
+            }
+
+            tilesDecoded(imageTiles, requestedKeys, tiles);
+
+            repaint();
+        });
+    }
+
+    private static void tilesDecoded(ImageTiles imageTiles, List<ImageTiles.Key> keys, List<BufferedImage> tiles) {
+        var n = keys.size();
+
+        for (var i = 0; i < n; i++) {
+            imageTiles.put(keys.get(i), tiles.get(i), tileCacheLimit);
+        }
+    }
+
+    private void buildMipMaps(int level) {
+        var image = mipMapSource;
+        var mipMaps = this.mipMaps;
+
+        var version = mipMapVersion;
+
+        pendingMipMapLevel = level;
+
+        taskExecutor.execute(() -> {
+            var levels = new ArrayList<BufferedImage>(level);
+
+            levels.addAll(mipMaps);
+
+            // Each level is half the size of the previous one
+            Image previousLevel = levels.isEmpty() ? image : levels.get(levels.size() - 1);
+
+            while (levels.size() < level) {
+                var width = Math.max(previousLevel.getWidth(null) / 2, 1);
+                var height = Math.max(previousLevel.getHeight(null) / 2, 1);
+
+                var mipMap = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+
+                var mipMapGraphics = mipMap.createGraphics();
+
+                mipMapGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+                mipMapGraphics.drawImage(previousLevel, 0, 0, width, height, null);
+                mipMapGraphics.dispose();
+
+                levels.add(mipMap);
+
+                previousLevel = mipMap;
+            }
+
+            return levels;
+        }, (levels, exception) -> {
+            // Levels built for a previous image, or for its previous content, are discarded
+            if (image != mipMapSource || version != mipMapVersion) {
+                return;
+            }
+
+            pendingMipMapLevel = 0;
+
+            if (exception != null) {
+                throw new RuntimeException(exception);
+            }
+
+            if (levels.size() > this.mipMaps.size()) {
+                this.mipMaps = levels;
+            }
+
+            repaint();
+        });
+    }
+
+    private void cancelImageLoad() {
+        if (pendingImageLoad != null) {
+            pendingImageLoad.cancelled = true;
+
+            pendingImageLoad = null;
+        }
+
+        if (imageTiles != null) {
+            imageTiles.cancelled = true;
+        }
+
+        pendingImageTiles = null;
+    }
+
+    private boolean hasTiles() {
+        return image == null && imageTiles != null && imageTiles.isOpen();
+    }
+
+    private Image getDisplayedImage() {
+        return (image == null && imageSource != null && imageTiles == null) ? placeholder : image;
+    }
+
+    /**
+     * Releases the scaled copy and mip maps of the image, if any.
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+
+        releaseScaledImages();
+    }
+
+    private void releaseScaledImages() {
+        scaledImage = null;
+
+        mipMaps = List.of();
+        mipMapSource = null;
+
+        mipMapVersion++;
+    }
+
+    /**
+     * Returns the maximum size of the scaled copy of the image that each image
+     * pane will retain. The default value is 32 MB.
+     *
+     * @return
+     * The scaled image cache limit, in bytes.
+     */
+    public static long getScaledImageCacheLimit() {
+        return scaledImageCacheLimit;
+    }
+
+    /**
+     * Sets the maximum size of the scaled copy of the image that each image
+     * pane will retain. Images whose scaled copy would exceed the limit are
+     * scaled every time they are painted.
+     *
+     * @param scaledImageCacheLimit
+     * The scaled image cache limit, in bytes, or 0 to disable caching.
+     */
+    public static void setScaledImageCacheLimit(long scaledImageCacheLimit) {
+        if (scaledImageCacheLimit < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        ImagePane.scaledImageCacheLimit = scaledImageCacheLimit;
+    }
+
+    /**
+     * Returns the maximum size of the decoded tiles that each image pane will
+     * retain. The default value is 64 MB.
+     *
+     * @return
+     * The tile cache limit, in bytes.
+     */
+    public static long getTileCacheLimit() {
+        return tileCacheLimit;
+    }
+
+    /**
+     * Sets the maximum size of the decoded tiles that each image pane will
+     * retain. The least recently painted tiles are evicted when the limit is
+     * exceeded. Visible tiles are always retained.
+     *
+     * @param tileCacheLimit
+     * The tile cache limit, in bytes.
+     */
+    public static void setTileCacheLimit(long tileCacheLimit) {
+        if (tileCacheLimit < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        ImagePane.tileCacheLimit = tileCacheLimit;
+    }
+
+    /**
+     * Returns the maximum size of the decoded images that will be shared by
+     * all image panes. The default value is 64 MB.
+     *
+     * @return
+     * The image cache limit, in bytes.
+     */
+    public static long getImageCacheLimit() {
+        return ImageCache.getLimit();
+    }
+
+    /**
+     * Sets the maximum size of the decoded images that will be shared by all
+     * image panes. The least recently used images are evicted when the limit
+     * is exceeded. Evicted images remain available until they are reclaimed by
+     * the garbage collector.
+     *
+     * @param imageCacheLimit
+     * The image cache limit, in bytes, or 0 to disable caching.
+     */
+    public static void setImageCacheLimit(long imageCacheLimit) {
+        ImageCache.setLimit(imageCacheLimit);
+    }
+
+    /**
+     * Returns the size of the decoded images currently retained by the image
+     * cache, excluding evicted images that have not yet been reclaimed.
+     *
+     * @return
+     * The image cache size, in bytes.
+     */
+    public static long getImageCacheSize() {
+        return ImageCache.getSize();
+    }
+
+    /**
+     * Returns the number of images that were displayed using a cached image.
+     *
+     * @return
+     * The image cache hit count.
+     */
+    public static long getImageCacheHitCount() {
+        return ImageCache.getHitCount();
+    }
+
+    /**
+     * Returns the number of images that could not be displayed using a cached
+     * image.
+     *
+     * @return
+     * The image cache miss count.
+     */
+    public static long getImageCacheMissCount() {
+        return ImageCache.getMissCount();
+    }
+
+    /**
+     * Returns the number of images that were evicted from the cache.
+     *
+     * @return
+     * The image cache eviction count.
+     */
+    public static long getImageCacheEvictionCount() {
+        return ImageCache.getEvictionCount();
+    }
+
+    /**
+     * Resets the image cache hit, miss, and eviction counts.
+     */
+    public static void resetImageCacheStatistics() {
+        ImageCache.resetStatistics();
+    }
+
+    /**
+     * Returns the image pane's preferred size for a given amount of available
+     * space. The preferred size depends on the available width or height
+     * when the image is scaled to fill it.
+     * {@inheritDoc}
+     */
+    @Override
+    public Dimension getPreferredSize(int width, int height) {
+        if (!isPreferredSizeSet() && ui instanceof ImagePaneUI imagePaneUI) {
+            return imagePaneUI.getPreferredSize(width, height);
+        } else {
+            return getPreferredSize();
+        }
+    }
 }
@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Decodes and caches regions of a large image.
+ */
+class ImageTiles {
+    record Key(int subsampling, int column, int row) {
+    }
+
+    @FunctionalInterface
+    private interface ImageReaderCallback<T> {
+        T read(ImageReader imageReader) throws IOException;
+    }
+
+    static final int TILE_SIZE = 512;
+
+    private Callable<? extends InputStream> imageSource;
+
+    private int width = 0;
+    private int height = 0;
+
+    volatile boolean cancelled = false;
+
+    private Map<Key, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+
+    private Set<Key> pendingKeys = new HashSet<>();
+
+    private Set<Key> visibleKeys = Set.of();
+
+    ImageTiles(Callable<? extends InputStream> imageSource) {
+        this.imageSource = imageSource;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    boolean isOpen() {
+        return width > 0 && height > 0;
+    }
+
+    void open(Dimension imageSize) {
+        width = imageSize.width;
+        height = imageSize.height;
+    }
+
+    int getMaximumSubsampling() {
+        // Tiles at the maximum subsampling cover the entire image
+        var subsampling = 1;
+
+        while (TILE_SIZE * subsampling < Math.max(width, height)) {
+            subsampling *= 2;
+        }
+
+        return subsampling;
+    }
+
+    Rectangle getSourceRegion(Key key) {
+        var tileSize = TILE_SIZE * key.subsampling();
+
+        var x = key.column() * tileSize;
+        var y = key.row() * tileSize;
+
+        return new Rectangle(x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y));
+    }
+
+    boolean contains(Key key) {
+        return tiles.containsKey(key);
+    }
+
+    BufferedImage get(Key key) {
+        return tiles.get(key);
+    }
+
+    void setVisibleKeys(Set<Key> visibleKeys) {
+        this.visibleKeys = visibleKeys;
+    }
+
+    void put(Key key, BufferedImage tile, long limit) {
+        var previousTile = tiles.put(key, tile);
+
+        if (previousTile != null) {
+            size -= getSize(previousTile);
+        }
+
+        size += getSize(tile);
+
+        // The least recently painted tiles are evicted first; visible tiles are retained even when they exceed the limit,
+        // since they would otherwise be decoded again as soon as they were evicted
+        var iterator = tiles.entrySet().iterator();
+
+        while (size > limit && iterator.hasNext()) {
+            var entry = iterator.next();
+
+            if (entry.getKey().equals(key) || visibleKeys.contains(entry.getKey())) {
+                continue;
+            }
+
+            size -= getSize(entry.getValue());
+
+            iterator.remove();
+        }
+    }
+
+    private static long getSize(BufferedImage tile) {
+        return (long)tile.getWidth() * tile.getHeight() * 4;
+    }
+
+    List<Key> request(List<Key> keys) {
+        var requestedKeys = new ArrayList<Key>(keys.size());
+
+        for (var key : keys) {
+            if (pendingKeys.add(key)) {
+                requestedKeys.add(key);
+            }
+        }
+
+        return requestedKeys;
+    }
+
+    void complete(List<Key> keys) {
+        pendingKeys.removeAll(keys);
+    }
+
+    Dimension readSize() throws IOException {
+        return read(imageReader -> new Dimension(imageReader.getWidth(0), imageReader.getHeight(0)));
+    }
+
+    List<BufferedImage> decode(List<Key> keys) throws IOException {
+        return read(imageReader -> {
+            var images = new ArrayList<BufferedImage>(keys.size());
+
+            for (var key : keys) {
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+
+                var imageReadParam = imageReader.getDefaultReadParam();
+
+                imageReadParam.setSourceRegion(getSourceRegion(key));
+                imageReadParam.setSourceSubsampling(key.subsampling(), key.subsampling(), 0, 0);
+
+                images.add(imageReader.read(0, imageReadParam));
+            }
+
+            return images;
+        });
+    }
+
+    private <T> T read(ImageReaderCallback<T> callback) throws IOException {
+        try (var inputStream = imageSource.call(); var imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            var imageReaders = ImageIO.getImageReaders(imageInputStream);
+
+            if (!imageReaders.hasNext()) {
+                throw new IOException("Unsupported image format.");
+            }
+
+            var imageReader = imageReaders.next();
+
+            try {
+                // Regions are read in any order, so the stream must allow seeking backward
+                imageReader.setInput(imageInputStream, false, true);
+
+                return callback.read(imageReader);
+            } finally {
+                imageReader.dispose();
+            }
+        } catch (IOException | RuntimeException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new IOException(exception);
+        }
+    }
+}
@@ -20,34 +20,53 @@ import javax.swing.SwingConstants;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
+import java.awt.Insets;
 import java.awt.LayoutManager2;
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Abstract base class for layout panels.
  */
-public abstract class LayoutPanel extends JPanel implements Scrollable {
+public abstract class LayoutPanel extends JPanel implements Scrollable, SizeDependent {
     abstract static class AbstractLayoutManager implements LayoutManager2 {
+        private int cachedWidth = -1;
+        private int cachedHeight = -1;
+
+        private Dimension cachedSize = null;
+
+        private Dimension layoutSize = new Dimension();
+
+        private int baselineWidth = -1;
+        private int baselineHeight = -1;
+
+        private int cachedBaseline = -1;
+
+        private ComponentSize[] componentSizes = new ComponentSize[0];
+
+        private Insets insets = new Insets(0, 0, 0, 0);
+
         @Override
         public void addLayoutComponent(String name, Component component) {
-            // No-op
+            invalidateCache();
         }
 
         @Override
         public void addLayoutComponent(Component component, Object constraints) {
-            // No-op
+            invalidateCache();
         }
 
         @Override
         public void removeLayoutComponent(Component component) {
-            // No-op
+            invalidateCache();
         }
 
         @Override
         public void invalidateLayout(Container container) {
-            // No-op
+            // Resizing also invalidates the cache, since children that change before the next layout will not invalidate the panel again
+            invalidateCache();
         }
 
         @Override
@@ -72,24 +91,122 @@ public abstract class LayoutPanel extends JPanel implements Scrollable {
 
         @Override
         public Dimension preferredLayoutSize(Container container) {
-            return preferredLayoutSize();
+            return new Dimension(measure(container.getWidth(), container.getHeight()));
+        }
+
+        Dimension measure(int width, int height) {
+            if (!layoutCacheEnabled) {
+                return preferredLayoutSize(width, height);
+            }
+
+            var key = isHeightDependent() ? height : -1;
+
+            if (cachedSize != null && width == cachedWidth && key == cachedHeight) {
+                layoutCacheHitCount++;
+            } else {
+                layoutCacheMissCount++;
+
+                cachedSize = preferredLayoutSize(width, height);
+
+                cachedWidth = width;
+                cachedHeight = key;
+            }
+
+            return cachedSize;
+        }
+
+        protected abstract Dimension preferredLayoutSize(int width, int height);
+
+        protected Dimension layoutSize(int width, int height) {
+            // The instance is reused by every measurement, so callers that retain it must copy it
+            layoutSize.setSize(width, height);
+
+            return layoutSize;
+        }
+
+        protected boolean isHeightDependent() {
+            return false;
+        }
+
+        int getBaseline(int width, int height) {
+            if (!layoutCacheEnabled) {
+                return calculateBaseline(width, height);
+            }
+
+            if (width != baselineWidth || height != baselineHeight) {
+                cachedBaseline = calculateBaseline(width, height);
+
+                baselineWidth = width;
+                baselineHeight = height;
+            }
+
+            return cachedBaseline;
+        }
+
+        protected int calculateBaseline(int width, int height) {
+            return -1;
         }
 
-        protected abstract Dimension preferredLayoutSize();
+        protected void invalidateCache() {
+            cachedSize = null;
+
+            baselineWidth = -1;
+            baselineHeight = -1;
+
+            Arrays.fill(componentSizes, null);
+        }
+
+        Dimension getComponentSize(Component component, int index, int width, int height) {
+            if (!layoutCacheEnabled || isSizeDependent(component)) {
+                return getPreferredSize(component, width, height);
+            }
+
+            // Preferred sizes are retained for the rest of the layout pass, since components such as wrapping text areas may change size when they are laid out
+            if (index >= componentSizes.length) {
+                componentSizes = Arrays.copyOf(componentSizes, Math.max(index + 1, componentSizes.length * 2));
+            }
+
+            var componentSize = componentSizes[index];
+
+            if (componentSize == null || componentSize.width() != width || componentSize.height() != height) {
+                componentSize = new ComponentSize(width, height, getPreferredSize(component, width, height));
+
+                componentSizes[index] = componentSize;
+            }
+
+            return componentSize.preferredSize();
+        }
+
+        Insets getInsets(LayoutPanel layoutPanel) {
+            return layoutPanel.getInsets(insets);
+        }
 
         @Override
         public void layoutContainer(Container container) {
             layoutContainer();
+
+            Arrays.fill(componentSizes, null);
         }
 
         protected abstract void layoutContainer();
     }
 
+    private record ComponentSize(int width, int height, Dimension preferredSize) {
+    }
+
     private List<Object> constraints = new ArrayList<>();
 
     private boolean scrollableTracksViewportWidth;
     private boolean scrollableTracksViewportHeight;
 
+    private int batchDepth = 0;
+    private boolean contentsChanged = false;
+
+    private static boolean layoutCacheEnabled = true;
+
+    private static long layoutCacheHitCount = 0;
+    private static long layoutCacheMissCount = 0;
+
     LayoutPanel() {
         super(null);
 
@@ -106,8 +223,7 @@ public abstract class LayoutPanel extends JPanel implements Scrollable {
 
         this.constraints.add((index == -1) ? this.constraints.size() : index, constraints);
 
-        revalidate();
-        repaint();
+        invalidateContents();
     }
 
     /**
@@ -120,8 +236,7 @@ public abstract class LayoutPanel extends JPanel implements Scrollable {
 
         constraints.remove(index);
 
-        revalidate();
-        repaint();
+        invalidateContents();
     }
 
     /**
@@ -134,8 +249,80 @@ public abstract class LayoutPanel extends JPanel implements Scrollable {
 
         constraints.clear();
 
-        revalidate();
-        repaint();
+        invalidateContents();
+    }
+
+    /**
+     * Performs a batch of updates to the panel's contents. The panel is
+     * revalidated and repainted once when the batch is complete, rather than
+     * after each individual update. Batches may be nested.
+     *
+     * @param updates
+     * The updates to perform.
+     */
+    public void batch(Runnable updates) {
+        if (updates == null) {
+            throw new IllegalArgumentException();
+        }
+
+        batchDepth++;
+
+        try {
+            updates.run();
+        } finally {
+            batchDepth--;
+
+            if (batchDepth == 0 && contentsChanged) {
+                contentsChanged = false;
+
+                revalidate();
+                repaint();
+            }
+        }
+    }
+
+    private void invalidateContents() {
+        if (batchDepth > 0) {
+            contentsChanged = true;
+        } else {
+            revalidate();
+            repaint();
+        }
+    }
+
+    /**
+     * Returns the panel's preferred size for a given amount of available space.
+     * {@inheritDoc}
+     */
+    @Override
+    public Dimension getPreferredSize(int width, int height) {
+        if (!isPreferredSizeSet() && getLayout() instanceof AbstractLayoutManager layoutManager) {
+            return new Dimension(layoutManager.measure(width, height));
+        } else {
+            return getPreferredSize();
+        }
+    }
+
+    static boolean isSizeDependent(Component component) {
+        return !component.isPreferredSizeSet() && component instanceof SizeDependent;
+    }
+
+    static Dimension getPreferredSize(Component component, int width, int height) {
+        if (isSizeDependent(component)) {
+            // Layout panels are measured directly, so the cached size is not copied
+            if (component instanceof LayoutPanel layoutPanel && layoutPanel.getLayout() instanceof AbstractLayoutManager layoutManager) {
+                return layoutManager.measure(width, height);
+            } else {
+                return ((SizeDependent)component).getPreferredSize(width, height);
+            }
+        }
+
+        // The preferred size of other components, such as wrapping text areas, may depend on their current size
+        if (!component.isPreferredSizeSet()) {
+            component.setSize(width, height);
+        }
+
+        return component.getPreferredSize();
     }
 
     /**
@@ -238,4 +425,55 @@ public abstract class LayoutPanel extends JPanel implements Scrollable {
 
         revalidate();
     }
+
+    /**
+     * Indicates that layout panels will cache their preferred sizes. The
+     * default value is {@code true}.
+     *
+     * @return
+     * {@code true} if preferred sizes will be cached; {@code false}, otherwise.
+     */
+    public static boolean getLayoutCacheEnabled() {
+        return layoutCacheEnabled;
+    }
+
+    /**
+     * Toggles preferred size caching.
+     *
+     * @param layoutCacheEnabled
+     * {@code true} to cache preferred sizes; {@code false}, otherwise.
+     */
+    public static void setLayoutCacheEnabled(boolean layoutCacheEnabled) {
+        LayoutPanel.layoutCacheEnabled = layoutCacheEnabled;
+    }
+
+    /**
+     * Returns the number of preferred size requests that were satisfied by the
+     * layout cache.
+     *
+     * @return
+     * The layout cache hit count.
+     */
+    public static long getLayoutCacheHitCount() {
+        return layoutCacheHitCount;
+    }
+
+    /**
+     * Returns the number of preferred size requests that required a layout
+     * calculation.
+     *
+     * @return
+     * The layout cache miss count.
+     */
+    public static long getLayoutCacheMissCount() {
+        return layoutCacheMissCount;
+    }
+
+    /**
+     * Resets the layout cache hit and miss counts.
+     */
+    public static void resetLayoutCacheStatistics() {
+        layoutCacheHitCount = 0;
+        layoutCacheMissCount = 0;
+    }
 }
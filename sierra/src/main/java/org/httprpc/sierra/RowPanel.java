@@ -14,9 +14,9 @@
 
 package org.httprpc.sierra;
 
+import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.LayoutManager;
-import java.util.List;
 
 /**
  * Arranges sub-components horizontally in a row, optionally pinning component
@@ -27,70 +27,91 @@ import java.util.List;
  * sub-components are pinned to top and bottom. When aligning to baseline,
  * preferred height is the maximum ascent/descent of all sub-components plus
  * vertical insets, and sub-components are not pinned to top and bottom.
+ * Invisible sub-components are ignored, except when aligning to grid, in which
+ * case they occupy an empty cell unless their column is empty in every row.
  */
 public class RowPanel extends BoxPanel {
     // Row layout manager
     private class RowLayoutManager extends AbstractLayoutManager {
-        @Override
-        public Dimension preferredLayoutSize() {
-            var parent = getParent();
+        // Calculated component bounds and baselines
+        private int[] widths = new int[0];
+        private int[] heights = new int[0];
 
-            List<Integer> columnWidths = null;
-            List<Double> columnWeights = null;
+        private int[] xs = new int[0];
+        private int[] ys = new int[0];
 
-            var spacing = getSpacing();
+        private int[] baselines = new int[0];
 
-            if (parent instanceof ColumnPanel columnPanel && columnPanel.getAlignToGrid()) {
-                columnWidths = columnPanel.getColumnWidths();
-                columnWeights = columnPanel.getColumnWeights();
+        private Dimension emptySize = new Dimension(0, 0);
 
-                spacing = columnPanel.getRowSpacing();
-            }
+        @Override
+        protected boolean isHeightDependent() {
+            return true;
+        }
+
+        @Override
+        protected Dimension preferredLayoutSize(int width, int height) {
+            var gridTracks = getGridTracks();
 
-            var size = getSize();
-            var insets = getInsets();
+            var spacing = (gridTracks == null) ? getSpacing() : gridTracks.getSpacing();
+
+            var insets = getInsets(RowPanel.this);
 
             var preferredWidth = 0;
             var totalWeight = 0.0;
 
-            var height = Math.max(size.height - (insets.top + insets.bottom), 0);
+            height = Math.max(height - (insets.top + insets.bottom), 0);
 
             var n = getComponentCount();
 
+            ensureCapacity(n);
+
+            var count = 0;
+            var last = -1;
+
             for (var i = 0; i < n; i++) {
                 var component = getComponent(i);
 
-                var weight = getWeight(i);
+                if (isExcluded(component, i, gridTracks)) {
+                    continue;
+                }
 
-                if (Double.isNaN(weight)) {
-                    component.setSize(Integer.MAX_VALUE, height);
-                    component.setSize(component.getPreferredSize());
+                count++;
 
-                    var width = component.getWidth();
+                if (component.isVisible()) {
+                    last = i;
+                }
+
+                var weight = getWeight(i);
 
-                    if (columnWidths != null) {
-                        width = Math.max(columnWidths.get(i), width);
+                if (Double.isNaN(weight)) {
+                    var preferredSize = getCellSize(component, i, Integer.MAX_VALUE, height);
 
-                        columnWidths.set(i, width);
+                    var componentWidth = preferredSize.width;
 
-                        component.setSize(width, component.getHeight());
+                    if (gridTracks != null) {
+                        componentWidth = Math.max(gridTracks.getWidth(i), componentWidth);
                     }
 
-                    preferredWidth += width;
-                } else {
-                    if (columnWeights != null) {
-                        weight = Math.max(columnWeights.get(i), weight);
+                    widths[i] = componentWidth;
+                    heights[i] = preferredSize.height;
 
-                        columnWeights.set(i, weight);
+                    preferredWidth += componentWidth;
+                } else {
+                    if (gridTracks != null) {
+                        weight = gridTracks.getWeight(i);
                     }
 
-                    totalWeight += weight;
+                    // Columns whose width is fixed by unweighted cells in other rows do not share the excess width
+                    if (!Double.isNaN(weight)) {
+                        totalWeight += weight;
+                    }
                 }
             }
 
-            preferredWidth += spacing * (n - 1);
+            preferredWidth += spacing * Math.max(count - 1, 0);
 
-            var excessWidth = Math.max(size.width - (insets.left + insets.right) - preferredWidth, 0);
+            var excessWidth = Math.max(width - (insets.left + insets.right) - preferredWidth, 0);
             var remainingWidth = excessWidth;
 
             var preferredHeight = 0;
@@ -101,32 +122,36 @@ public class RowPanel extends BoxPanel {
             for (var i = 0; i < n; i++) {
                 var component = getComponent(i);
 
+                if (isExcluded(component, i, gridTracks)) {
+                    continue;
+                }
+
                 var weight = getWeight(i);
 
                 if (!Double.isNaN(weight)) {
-                    var columnWidth = (columnWidths == null) ? 0 : columnWidths.get(i);
+                    var columnWidth = (gridTracks == null) ? 0 : gridTracks.getWidth(i);
 
-                    int width;
-                    if (i < n - 1) {
-                        width = (columnWidth > 0) ? columnWidth : (int)Math.round(excessWidth * (weight / totalWeight));
+                    int componentWidth;
+                    if (i < last) {
+                        componentWidth = (columnWidth > 0) ? columnWidth : (int)Math.round(excessWidth * (weight / totalWeight));
 
-                        remainingWidth -= width;
+                        remainingWidth -= componentWidth;
                     } else {
-                        width = remainingWidth;
+                        componentWidth = remainingWidth;
                     }
 
-                    component.setSize(width, height);
-                    component.setSize(width, component.getPreferredSize().height);
+                    widths[i] = componentWidth;
+                    heights[i] = getCellSize(component, i, componentWidth, height).height;
                 }
 
-                preferredHeight = Math.max(preferredHeight, component.getHeight());
+                preferredHeight = Math.max(preferredHeight, heights[i]);
 
-                if (alignToBaseline) {
-                    var baseline = component.getBaseline(component.getWidth(), component.getHeight());
+                if (alignToBaseline && component.isVisible()) {
+                    var baseline = component.getBaseline(widths[i], heights[i]);
 
                     if (baseline >= 0) {
                         maximumAscent = Math.max(maximumAscent, baseline);
-                        maximumDescent = Math.max(maximumDescent, component.getHeight() - baseline);
+                        maximumDescent = Math.max(maximumDescent, heights[i] - baseline);
                     }
                 }
             }
@@ -135,93 +160,136 @@ public class RowPanel extends BoxPanel {
                 preferredHeight = Math.max(maximumAscent + maximumDescent, preferredHeight);
             }
 
-            return new Dimension(preferredWidth + insets.left + insets.right, preferredHeight + insets.top + insets.bottom);
+            return layoutSize(preferredWidth + insets.left + insets.right, preferredHeight + insets.top + insets.bottom);
+        }
+
+        @Override
+        protected int calculateBaseline(int width, int height) {
+            calculateLayout(width, height);
+
+            var n = getComponentCount();
+
+            for (var i = 0; i < n; i++) {
+                if (baselines[i] >= 0) {
+                    return ys[i] + baselines[i];
+                }
+            }
+
+            return -1;
         }
 
         @Override
         public void layoutContainer() {
-            var parent = getParent();
+            calculateLayout(getWidth(), getHeight());
+
+            var n = getComponentCount();
+
+            for (var i = 0; i < n; i++) {
+                var component = getComponent(i);
 
-            List<Integer> columnWidths = null;
-            List<Double> columnWeights = null;
+                if (component.isVisible()) {
+                    component.setBounds(xs[i], ys[i], widths[i], heights[i]);
+                }
+            }
+        }
+
+        private boolean isExcluded(Component component, int index, ColumnPanel.GridTracks gridTracks) {
+            // Hidden cells retain their grid column, so that subsequent cells remain aligned, unless the column is empty in every row
+            return !component.isVisible() && (gridTracks == null || gridTracks.isEmpty(index));
+        }
+
+        private Dimension getCellSize(Component component, int index, int width, int height) {
+            return component.isVisible() ? getComponentSize(component, index, width, height) : emptySize;
+        }
 
-            var spacing = getSpacing();
+        private void ensureCapacity(int n) {
+            if (widths.length < n) {
+                widths = new int[n];
+                heights = new int[n];
 
-            if (parent instanceof ColumnPanel columnPanel && columnPanel.getAlignToGrid()) {
-                columnWidths = columnPanel.getColumnWidths();
-                columnWeights = columnPanel.getColumnWeights();
+                xs = new int[n];
+                ys = new int[n];
 
-                spacing = columnPanel.getRowSpacing();
+                baselines = new int[n];
             }
+        }
+
+        private void calculateLayout(int width, int height) {
+            var gridTracks = getGridTracks();
 
-            var size = getSize();
-            var insets = getInsets();
+            var spacing = (gridTracks == null) ? getSpacing() : gridTracks.getSpacing();
 
-            var excessWidth = Math.max(size.width - (insets.left + insets.right), 0);
+            var insets = getInsets(RowPanel.this);
+
+            var excessWidth = Math.max(width - (insets.left + insets.right), 0);
             var totalWeight = 0.0;
 
-            var height = Math.max(size.height - (insets.top + insets.bottom), 0);
+            height = Math.max(height - (insets.top + insets.bottom), 0);
 
             var n = getComponentCount();
 
+            ensureCapacity(n);
+
+            var count = 0;
+            var last = -1;
+
             for (var i = 0; i < n; i++) {
                 var component = getComponent(i);
 
+                baselines[i] = -1;
+
+                if (isExcluded(component, i, gridTracks)) {
+                    continue;
+                }
+
+                count++;
+
+                if (component.isVisible()) {
+                    last = i;
+                }
+
                 var weight = getWeight(i);
 
                 if (Double.isNaN(weight)) {
-                    component.setSize(Integer.MAX_VALUE, height);
-                    component.setSize(component.getPreferredSize());
+                    var preferredSize = getCellSize(component, i, Integer.MAX_VALUE, height);
+
+                    var componentHeight = preferredSize.height;
 
                     if (!alignToBaseline) {
-                        if (columnWidths != null) {
-                            component.setSize(component.getWidth(), adjustSize(component.getHeight(), height, component.getAlignmentY()));
+                        if (gridTracks != null) {
+                            componentHeight = adjustSize(componentHeight, height, component.getAlignmentY());
                         } else {
-                            component.setSize(component.getWidth(), height);
+                            componentHeight = height;
                         }
                     }
 
-                    var preferredWidth = component.getWidth();
-
-                    var columnWidth = preferredWidth;
+                    var componentWidth = preferredSize.width;
 
-                    if (columnWidths != null) {
-                        if (i == columnWidths.size()) {
-                            columnWidths.add(columnWidth);
-                        } else {
-                            columnWidth = Math.max(columnWidths.get(i), columnWidth);
+                    var columnWidth = componentWidth;
 
-                            columnWidths.set(i, columnWidth);
+                    if (gridTracks != null) {
+                        columnWidth = gridTracks.getWidth(i);
 
-                            component.setSize(adjustSize(preferredWidth, columnWidth, component.getAlignmentX()), component.getHeight());
-                        }
+                        componentWidth = adjustSize(componentWidth, columnWidth, component.getAlignmentX());
                     }
 
-                    if (columnWeights != null && i == columnWeights.size()) {
-                        columnWeights.add(Double.NaN);
-                    }
+                    widths[i] = componentWidth;
+                    heights[i] = componentHeight;
 
                     excessWidth -= columnWidth;
                 } else {
-                    if (columnWeights != null) {
-                        if (i == columnWidths.size()) {
-                            columnWeights.add(weight);
-                        } else {
-                            weight = Math.max(columnWeights.get(i), weight);
-
-                            columnWeights.set(i, weight);
-                        }
+                    if (gridTracks != null) {
+                        weight = gridTracks.getWeight(i);
                     }
 
-                    if (columnWidths != null && i == columnWidths.size()) {
-                        columnWidths.add(0);
+                    // Columns whose width is fixed by unweighted cells in other rows do not share the excess width
+                    if (!Double.isNaN(weight)) {
+                        totalWeight += weight;
                     }
-
-                    totalWeight += weight;
                 }
             }
 
-            excessWidth = Math.max(0, excessWidth - spacing * (n - 1));
+            excessWidth = Math.max(0, excessWidth - spacing * Math.max(count - 1, 0));
 
             var remainingWidth = excessWidth;
 
@@ -231,53 +299,56 @@ public class RowPanel extends BoxPanel {
             if (leftToRight) {
                 x = insets.left;
             } else {
-                x = size.width - insets.right;
+                x = width - insets.right;
 
                 spacing *= -1;
             }
 
-            var baselines = new int[n];
-
             var maximumBaseline = 0;
 
             for (var i = 0; i < n; i++) {
                 var component = getComponent(i);
 
+                if (isExcluded(component, i, gridTracks)) {
+                    continue;
+                }
+
                 var weight = getWeight(i);
 
                 if (!Double.isNaN(weight)) {
-                    var width = (columnWidths == null) ? 0 : columnWidths.get(i);
+                    var componentWidth = (gridTracks == null) ? 0 : gridTracks.getWidth(i);
 
-                    if (width == 0) {
-                        if (columnWeights != null) {
-                            weight = columnWeights.get(i);
+                    if (componentWidth == 0) {
+                        if (gridTracks != null) {
+                            weight = gridTracks.getWeight(i);
                         }
 
-                        if (i < n - 1) {
-                            width = (int)Math.round(excessWidth * (weight / totalWeight));
+                        if (i < last) {
+                            componentWidth = (int)Math.round(excessWidth * (weight / totalWeight));
 
-                            remainingWidth -= width;
+                            remainingWidth -= componentWidth;
                         } else {
-                            width = remainingWidth;
+                            componentWidth = remainingWidth;
                         }
                     }
 
+                    widths[i] = componentWidth;
+
                     if (alignToBaseline) {
-                        component.setSize(width, height);
-                        component.setSize(width, component.getPreferredSize().height);
+                        heights[i] = getCellSize(component, i, componentWidth, height).height;
                     } else {
-                        component.setSize(width, height);
+                        heights[i] = height;
                     }
                 }
 
-                var width = component.getWidth();
+                var componentWidth = widths[i];
 
-                var columnWidth = (columnWidths == null) ? width : columnWidths.get(i);
+                var columnWidth = (gridTracks == null) ? componentWidth : gridTracks.getWidth(i);
 
-                var gap = columnWidth - width;
+                var gap = columnWidth - componentWidth;
 
                 if (!leftToRight) {
-                    x -= width;
+                    x -= componentWidth;
 
                     gap *= -1;
                 }
@@ -288,16 +359,17 @@ public class RowPanel extends BoxPanel {
                     x += gap;
                 }
 
-                component.setLocation(x, insets.top);
+                xs[i] = x;
+                ys[i] = insets.top;
 
                 var alignmentY = component.getAlignmentY();
 
                 if (!alignToBaseline && alignmentY > 0.5) {
-                    component.setLocation(component.getX(), component.getY() + (height - component.getHeight()));
+                    ys[i] += height - heights[i];
                 }
 
                 if (leftToRight) {
-                    x += width;
+                    x += componentWidth;
                 }
 
                 if (alignmentX < 0.5) {
@@ -306,8 +378,8 @@ public class RowPanel extends BoxPanel {
 
                 x += spacing;
 
-                if (alignToBaseline) {
-                    var baseline = component.getBaseline(component.getWidth(), component.getHeight());
+                if (alignToBaseline && component.isVisible()) {
+                    var baseline = component.getBaseline(widths[i], heights[i]);
 
                     baselines[i] = baseline;
 
@@ -319,18 +391,16 @@ public class RowPanel extends BoxPanel {
 
             if (alignToBaseline) {
                 for (var i = 0; i < n; i++) {
-                    var component = getComponent(i);
-
                     var baseline = baselines[i];
 
                     int offset;
                     if (baseline >= 0) {
                         offset = maximumBaseline - baseline;
                     } else {
-                        offset = (height - component.getHeight()) / 2;
+                        offset = (height - heights[i]) / 2;
                     }
 
-                    component.setLocation(component.getX(), component.getY() + offset);
+                    ys[i] += offset;
                 }
             }
         }
@@ -338,6 +408,9 @@ public class RowPanel extends BoxPanel {
 
     private boolean alignToBaseline = false;
 
+    private ColumnPanel.GridTracks countedGridTracks = null;
+    private int countedGridTracksVersion = 0;
+
     private static int adjustSize(int preferredSize, int size, float alignment) {
         return Math.round(preferredSize + Math.max(size - preferredSize, 0) * (1.0f - Math.abs((0.5f - alignment) / 0.5f)));
     }
@@ -393,4 +466,69 @@ public class RowPanel extends BoxPanel {
     public int getBaseline(int width, int height) {
         return alignToBaseline ? super.getBaseline(width, height) : -1;
     }
+
+    private ColumnPanel.GridTracks getGridTracks() {
+        var parent = getParent();
+
+        ColumnPanel.GridTracks gridTracks;
+        if (parent instanceof ColumnPanel columnPanel && columnPanel.getAlignToGrid()) {
+            gridTracks = columnPanel.getGridTracks();
+        } else if (parent instanceof VirtualColumnPanel<?> virtualColumnPanel && virtualColumnPanel.getAlignToGrid()) {
+            gridTracks = virtualColumnPanel.getGridTracks();
+        } else {
+            return null;
+        }
+
+        // Rows that did not contribute to the current tracks, such as weighted rows, are not aligned
+        if (gridTracks != countedGridTracks || gridTracks.getVersion() != countedGridTracksVersion) {
+            return null;
+        }
+
+        return gridTracks;
+    }
+
+    void updateGridTracks(ColumnPanel.GridTracks gridTracks, int height) {
+        countedGridTracks = gridTracks;
+        countedGridTracksVersion = gridTracks.getVersion();
+
+        var insets = getInsets();
+
+        height = Math.max(height - (insets.top + insets.bottom), 0);
+
+        var n = getComponentCount();
+
+        for (var i = 0; i < n; i++) {
+            var component = getComponent(i);
+
+            if (!component.isVisible()) {
+                if (i == gridTracks.size()) {
+                    gridTracks.addEmpty();
+                }
+
+                continue;
+            }
+
+            var weight = getWeight(i);
+
+            if (Double.isNaN(weight)) {
+                var width = getPreferredSize(component, Integer.MAX_VALUE, height).width;
+
+                if (i == gridTracks.size()) {
+                    gridTracks.add(width, Double.NaN);
+                } else if (gridTracks.isEmpty(i)) {
+                    gridTracks.set(i, width, Double.NaN);
+                } else {
+                    gridTracks.setWidth(i, Math.max(gridTracks.getWidth(i), width));
+                }
+            } else {
+                if (i == gridTracks.size()) {
+                    gridTracks.add(0, weight);
+                } else if (gridTracks.isEmpty(i)) {
+                    gridTracks.set(i, 0, weight);
+                } else {
+                    gridTracks.setWeight(i, Math.max(gridTracks.getWeight(i), weight));
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra;
+
+import java.awt.Dimension;
+
+/**
+ * Interface representing a component whose preferred size depends on the
+ * space available to it. For example, the preferred height of a text pane
+ * that wraps its text depends on its width.
+ */
+public interface SizeDependent {
+    /**
+     * Returns the component's preferred size for a given amount of available
+     * space. The component's bounds are not modified. The result depends only
+     * on the available space and the component's state, so it may be cached
+     * until the component is invalidated.
+     *
+     * @param width
+     * The available width, or {@link Integer#MAX_VALUE} if the width is not
+     * constrained.
+     *
+     * @param height
+     * The available height, or {@link Integer#MAX_VALUE} if the height is not
+     * constrained.
+     *
+     * @return
+     * The preferred size.
+     */
+    Dimension getPreferredSize(int width, int height);
+}
@@ -19,16 +19,15 @@ import java.awt.LayoutManager;
 
 /**
  * Arranges sub-components by z-order, pinning component edges to the
- * container's insets.
+ * container's insets. Invisible sub-components are ignored.
  */
 public class StackPanel extends LayoutPanel {
     private class StackLayoutManager extends AbstractLayoutManager {
         @Override
-        protected Dimension preferredLayoutSize() {
-            var size = getSize();
-            var insets = getInsets();
+        protected Dimension preferredLayoutSize(int width, int height) {
+            var insets = getInsets(StackPanel.this);
 
-            var width = Math.max(size.width - (insets.left + insets.right), 0);
+            width = Math.max(width - (insets.left + insets.right), 0);
 
             var preferredWidth = 0;
             var preferredHeight = 0;
@@ -38,29 +37,34 @@ public class StackPanel extends LayoutPanel {
             for (var i = 0; i < n; i++) {
                 var component = getComponent(i);
 
-                component.setSize(width, Integer.MAX_VALUE);
+                if (!component.isVisible()) {
+                    continue;
+                }
 
-                var preferredSize = component.getPreferredSize();
+                var preferredSize = getComponentSize(component, i, width, Integer.MAX_VALUE);
 
                 preferredWidth = Math.max(preferredWidth, preferredSize.width);
                 preferredHeight = Math.max(preferredHeight, preferredSize.height);
             }
 
-            return new Dimension(preferredWidth + insets.left + insets.right, preferredHeight + insets.top + insets.bottom);
+            return layoutSize(preferredWidth + insets.left + insets.right, preferredHeight + insets.top + insets.bottom);
         }
 
         @Override
         protected void layoutContainer() {
-            var size = getSize();
-            var insets = getInsets();
+            var insets = getInsets(StackPanel.this);
 
-            var width = Math.max(size.width - (insets.left + insets.right), 0);
-            var height = Math.max(size.height - (insets.top + insets.bottom), 0);
+            var width = Math.max(getWidth() - (insets.left + insets.right), 0);
+            var height = Math.max(getHeight() - (insets.top + insets.bottom), 0);
 
             var n = getComponentCount();
 
             for (var i = 0; i < n; i++) {
-                getComponent(i).setBounds(insets.left, insets.top, width, height);
+                var component = getComponent(i);
+
+                if (component.isVisible()) {
+                    component.setBounds(insets.left, insets.top, width, height);
+                }
             }
         }
     }
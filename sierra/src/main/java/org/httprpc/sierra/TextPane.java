@@ -24,15 +24,15 @@ import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
-import java.text.StringCharacterIterator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Displays a string of text.
  */
-public class TextPane extends JComponent {
+public class TextPane extends JComponent implements SizeDependent {
     // Text pane UI
     private class TextPaneUI extends ComponentUI {
         @Override
@@ -47,64 +47,20 @@ public class TextPane extends JComponent {
 
         @Override
         public Dimension getPreferredSize(JComponent component) {
+            return getPreferredSize(getWidth());
+        }
+
+        private Dimension getPreferredSize(int width) {
             if (text == null) {
                 return new Dimension(0, 0);
             }
 
             var insets = getInsets();
 
-            var font = getFont();
-
-            double textWidth;
-            double textHeight;
-            if (wrapText) {
-                var lineHeight = font.getLineMetrics("", fontRenderContext).getHeight();
-
-                textWidth = 0.0;
-                textHeight = lineHeight;
+            var lineBreaks = getLineBreaks(Math.max(width - (insets.left + insets.right), 0));
 
-                var width = Math.max(getWidth() - (insets.left + insets.right), 0);
-
-                var lineWidth = 0.0;
-                var lastWhitespaceIndex = -1;
-
-                var n = text.length();
-                var i = 0;
-
-                while (i < n) {
-                    var c = text.charAt(i);
-
-                    if (Character.isWhitespace(c)) {
-                        lastWhitespaceIndex = i;
-                    }
-
-                    var characterBounds = font.getStringBounds(text, i, i + 1, fontRenderContext);
-
-                    lineWidth += characterBounds.getWidth();
-
-                    if (lineWidth > width && lastWhitespaceIndex != -1) {
-                        textWidth = Math.max(lineWidth, textWidth);
-                        textHeight += lineHeight;
-
-                        i = lastWhitespaceIndex;
-
-                        lineWidth = 0.0;
-                        lastWhitespaceIndex = -1;
-                    }
-
-                    i++;
-                }
-
-                textWidth = Math.max(lineWidth, textWidth);
-            } else {
-                var stringBounds = font.getStringBounds(text, 0, text.length(), fontRenderContext);
-
-                textWidth = stringBounds.getWidth();
-                textHeight = stringBounds.getHeight();
-            }
-
-            var preferredWidth = textWidth + (insets.left + insets.right);
-            var preferredHeight = textHeight + (insets.top + insets.bottom);
+            var preferredWidth = lineBreaks.textWidth + (insets.left + insets.right);
+            var preferredHeight = lineBreaks.textHeight + (insets.top + insets.bottom);
 
             return new Dimension((int)Math.ceil(preferredWidth), (int)Math.ceil(preferredHeight));
         }
@@ -138,7 +94,7 @@ public class TextPane extends JComponent {
         }
 
         private void paint(Graphics2D graphics) {
-            if (glyphVectors.isEmpty()) {
+            if (layoutLineBreaks == null) {
                 return;
             }
 
@@ -160,15 +116,22 @@ public class TextPane extends JComponent {
 
             graphics = (Graphics2D)graphics.create();
 
-            graphics.setClip(insets.left, insets.top, width, height);
+            graphics.clipRect(insets.left, insets.top, width, height);
 
             graphics.setColor(getForeground());
             graphics.setFont(font);
 
-            var n = glyphVectors.size();
+            // Only lines that intersect the clip are painted
+            var clipBounds = graphics.getClipBounds();
+
+            var first = getLineIndex(clipBounds.y - y);
 
-            for (var i = 0; i < n; i++) {
-                var glyphVector = glyphVectors.get(i);
+            y += getLineOffset(first);
+
+            var n = getLineCount();
+
+            for (var i = first; i < n && y < clipBounds.y + clipBounds.height; i++) {
+                var glyphVector = getGlyphVector(i);
 
                 var textBounds = glyphVector.getLogicalBounds();
 
@@ -188,22 +151,134 @@ public class TextPane extends JComponent {
 
                 graphics.drawGlyphVector(glyphVector, (float)x, (float)y + ascent);
 
-                y += textBounds.getHeight();
+                y += lazyShaping ? lineHeight : textBounds.getHeight();
             }
 
             graphics.dispose();
         }
+
+        private int getLineIndex(double offset) {
+            if (offset <= 0.0) {
+                return 0;
+            }
+
+            var n = getLineCount();
+
+            if (lazyShaping) {
+                return Math.max(Math.min((int)(offset / lineHeight), n - 1), 0);
+            }
+
+            var i = Arrays.binarySearch(lineOffsets, 0, n + 1, offset);
+
+            if (i < 0) {
+                i = -(i + 1) - 1;
+            }
+
+            return Math.max(Math.min(i, n - 1), 0);
+        }
+
+        private int getLineCount() {
+            // Lines appended since the last layout are not painted until they have been shaped
+            return lazyShaping ? layoutLineBreaks.count : glyphVectors.size();
+        }
+
+        private double getLineOffset(int index) {
+            return lazyShaping ? index * lineHeight : lineOffsets[index];
+        }
+
+        private GlyphVector getGlyphVector(int index) {
+            if (lazyShaping) {
+                return GlyphVectorCache.getGlyphVector(layoutLineBreaks.font, fontRenderContext, text, layoutLineBreaks.getStart(index), layoutLineBreaks.ends[index]);
+            } else {
+                return glyphVectors.get(index);
+            }
+        }
+    }
+
+    // Line break offsets calculated for a given font and width
+    private static class LineBreaks {
+        final Font font;
+        final int width;
+
+        int count = 0;
+        int[] ends = new int[8];
+
+        // Widths measured while wrapping, so that the text width can be recalculated when lines are removed
+        double[] widths = new double[8];
+
+        double textWidth = 0.0;
+        double textHeight = 0.0;
+
+        // Estimated line breaks have no line ends and are replaced when the actual line breaks are available
+        boolean estimated = false;
+
+        // Lines shaped in the background, until they are adopted by the text pane
+        List<GlyphVector> glyphVectors = null;
+        double[] lineOffsets = null;
+
+        LineBreaks(Font font, int width) {
+            this.font = font;
+            this.width = width;
+        }
+
+        void add(int end, double width) {
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, count * 2);
+                widths = Arrays.copyOf(widths, count * 2);
+            }
+
+            ends[count] = end;
+            widths[count] = width;
+
+            count++;
+
+            textWidth = Math.max(width, textWidth);
+        }
+
+        int getStart(int index) {
+            // Lines are broken at whitespace, which is not included in either line
+            return (index == 0) ? 0 : ends[index - 1] + 1;
+        }
+
+        void remove(int count, int offset) {
+            System.arraycopy(ends, count, ends, 0, this.count - count);
+            System.arraycopy(widths, count, widths, 0, this.count - count);
+
+            this.count -= count;
+
+            textWidth = 0.0;
+
+            for (var i = 0; i < this.count; i++) {
+                ends[i] -= offset;
+
+                textWidth = Math.max(widths[i], textWidth);
+            }
+        }
     }
 
     private String text;
 
     private boolean wrapText = false;
 
+    private boolean lazyShaping = false;
+
+    private int maximumLineCount = 0;
+
+    private TaskExecutor taskExecutor = null;
+
     private HorizontalAlignment horizontalAlignment = HorizontalAlignment.LEADING;
     private VerticalAlignment verticalAlignment = VerticalAlignment.TOP;
 
+    private LineBreaks lineBreaks = null;
+    private LineBreaks previousLineBreaks = null;
+
     private List<GlyphVector> glyphVectors = new ArrayList<>();
+    private double[] lineOffsets = new double[1];
+
     private double textHeight = 0.0;
+    private double lineHeight = 0.0;
+
+    private LineBreaks layoutLineBreaks = null;
 
     private static final FontRenderContext fontRenderContext;
     static {
@@ -265,9 +340,120 @@ public class TextPane extends JComponent {
     public void setText(String text) {
         this.text = text;
 
+        invalidateLineBreaks();
+
         revalidate();
     }
 
+    /**
+     * Appends text to the component. When wrapping is enabled, only the last
+     * line is wrapped again, and only lines that have changed are shaped.
+     *
+     * @param text
+     * The text to append.
+     */
+    public void append(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException();
+        }
+
+        if (text.isEmpty()) {
+            return;
+        }
+
+        if (this.text == null || this.text.isEmpty() || !wrapText || lineBreaks == null || lineBreaks.estimated
+            || !lineBreaks.font.equals(getFont())) {
+            setText((this.text == null) ? text.toString() : this.text + text);
+
+            return;
+        }
+
+        this.text += text;
+
+        // Lines before the last are not affected by the appended text
+        previousLineBreaks = null;
+
+        if (layoutLineBreaks != lineBreaks) {
+            layoutLineBreaks = null;
+        }
+
+        lineBreaks.glyphVectors = null;
+        lineBreaks.lineOffsets = null;
+
+        removeLines(--lineBreaks.count, 1);
+
+        wrap(this.text, lineBreaks, lineBreaks.getStart(lineBreaks.count));
+
+        if (maximumLineCount > 0 && lineBreaks.count > maximumLineCount) {
+            var count = lineBreaks.count - maximumLineCount;
+
+            var offset = lineBreaks.getStart(count);
+
+            this.text = this.text.substring(offset);
+
+            lineBreaks.remove(count, offset);
+
+            removeLines(0, count);
+
+            updateTextHeight(lineBreaks);
+        }
+
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Returns the maximum number of lines retained by {@link #append}. The
+     * default value is 0.
+     *
+     * @return
+     * The maximum line count, or 0 for no limit.
+     */
+    public int getMaximumLineCount() {
+        return maximumLineCount;
+    }
+
+    /**
+     * Sets the maximum number of lines retained by {@link #append}. When
+     * wrapping is enabled and an append exceeds the limit, the oldest lines
+     * are removed from the text.
+     *
+     * @param maximumLineCount
+     * The maximum line count, or 0 for no limit.
+     */
+    public void setMaximumLineCount(int maximumLineCount) {
+        if (maximumLineCount < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.maximumLineCount = maximumLineCount;
+    }
+
+    /**
+     * Returns the task executor used to wrap and shape text in the background.
+     * The default value is {@code null}.
+     *
+     * @return
+     * The task executor, or {@code null} if text is wrapped and shaped on the
+     * UI thread.
+     */
+    public TaskExecutor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    /**
+     * Sets the task executor used to wrap and shape text in the background.
+     * Until the result is available, the text pane retains its previous
+     * layout, or reports an estimated size if the text has changed.
+     *
+     * @param taskExecutor
+     * The task executor, or {@code null} to wrap and shape text on the UI
+     * thread.
+     */
+    public void setTaskExecutor(TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
     /**
      * Indicates that line wrapping is enabled. The default value is
      * {@code false}.
@@ -289,7 +475,38 @@ public class TextPane extends JComponent {
     public void setWrapText(boolean wrapText) {
         this.wrapText = wrapText;
 
+        invalidateLineBreaks();
+
+        revalidate();
+    }
+
+    /**
+     * Indicates that lines will be shaped as they are painted, rather than when
+     * the text pane is laid out. The default value is {@code false}.
+     *
+     * @return
+     * {@code true} if lines will be shaped lazily; {@code false}, otherwise.
+     */
+    public boolean getLazyShaping() {
+        return lazyShaping;
+    }
+
+    /**
+     * Toggles lazy shaping. Lazy shaping is intended for very large documents,
+     * such as logs displayed in a scroll pane. Layout cost does not depend on
+     * the number of lines, and only visible lines are shaped. All lines are
+     * assumed to have the font's line height.
+     *
+     * @param lazyShaping
+     * {@code true} to shape lines lazily; {@code false}, otherwise.
+     */
+    public void setLazyShaping(boolean lazyShaping) {
+        this.lazyShaping = lazyShaping;
+
+        layoutLineBreaks = null;
+
         revalidate();
+        repaint();
     }
 
     /**
@@ -352,58 +569,354 @@ public class TextPane extends JComponent {
      */
     @Override
     public void doLayout() {
-        glyphVectors.clear();
+        if (text == null || text.isEmpty()) {
+            glyphVectors.clear();
 
-        textHeight = 0.0;
+            textHeight = 0.0;
 
-        if (text != null && !text.isEmpty()) {
-            var insets = getInsets();
+            layoutLineBreaks = null;
 
-            var width = Math.max(getWidth() - (insets.left + insets.right), 0);
+            return;
+        }
 
-            var font = getFont();
+        var insets = getInsets();
 
-            if (wrapText) {
-                var n = text.length();
+        var lineBreaks = getLineBreaks(Math.max(getWidth() - (insets.left + insets.right), 0));
 
-                var i = 0;
-                var start = 0;
-                var lineWidth = 0.0;
-                var lastWhitespaceIndex = -1;
+        // The previous layout is retained until line breaks calculated in the background are available
+        if (lineBreaks.estimated) {
+            return;
+        }
 
-                while (i < n) {
-                    var c = text.charAt(i);
+        var n = lineBreaks.count;
 
-                    if (Character.isWhitespace(c)) {
-                        lastWhitespaceIndex = i;
-                    }
+        // Lines only need to be shaped again when the line breaks have changed; appended lines are shaped on their own
+        if (lineBreaks != layoutLineBreaks) {
+            glyphVectors.clear();
 
-                    lineWidth += font.getStringBounds(text, i, i + 1, fontRenderContext).getWidth();
+            textHeight = 0.0;
 
-                    if (lineWidth > width && lastWhitespaceIndex != -1) {
-                        appendLine(font, start, lastWhitespaceIndex);
+            if (lineBreaks.glyphVectors != null && !lazyShaping) {
+                glyphVectors.addAll(lineBreaks.glyphVectors);
 
-                        i = lastWhitespaceIndex;
-                        start = i + 1;
-                        lineWidth = 0.0;
-                        lastWhitespaceIndex = -1;
-                    }
+                lineOffsets = lineBreaks.lineOffsets;
 
-                    i++;
-                }
+                textHeight = lineOffsets[n];
+            }
+
+            lineBreaks.glyphVectors = null;
+            lineBreaks.lineOffsets = null;
+        }
 
-                appendLine(font, start, i);
+        if (lazyShaping) {
+            // Lines are shaped as they are painted, and are assumed to share the font's line height
+            lineHeight = lineBreaks.font.getLineMetrics("", fontRenderContext).getHeight();
+
+            textHeight = n * lineHeight;
+        } else {
+            if (lineOffsets.length < n + 1) {
+                lineOffsets = Arrays.copyOf(lineOffsets, Math.max(n + 1, lineOffsets.length * 2));
+            }
+
+            for (var i = glyphVectors.size(); i < n; i++) {
+                appendLine(lineBreaks.font, lineBreaks.getStart(i), lineBreaks.ends[i]);
+            }
+        }
+
+        layoutLineBreaks = lineBreaks;
+    }
+
+    /**
+     * Returns the maximum number of shaped lines that will be shared by all
+     * text panes. The default value is 1024.
+     *
+     * @return
+     * The glyph vector cache capacity.
+     */
+    public static int getGlyphVectorCacheCapacity() {
+        return GlyphVectorCache.getCapacity();
+    }
+
+    /**
+     * Sets the maximum number of shaped lines that will be shared by all text
+     * panes. The least recently used lines are evicted when the capacity is
+     * exceeded.
+     *
+     * @param glyphVectorCacheCapacity
+     * The glyph vector cache capacity, or 0 to disable caching.
+     */
+    public static void setGlyphVectorCacheCapacity(int glyphVectorCacheCapacity) {
+        GlyphVectorCache.setCapacity(glyphVectorCacheCapacity);
+    }
+
+    /**
+     * Returns the number of lines that were shaped using a cached glyph
+     * vector.
+     *
+     * @return
+     * The glyph vector cache hit count.
+     */
+    public static long getGlyphVectorCacheHitCount() {
+        return GlyphVectorCache.getHitCount();
+    }
+
+    /**
+     * Returns the number of lines that required a new glyph vector.
+     *
+     * @return
+     * The glyph vector cache miss count.
+     */
+    public static long getGlyphVectorCacheMissCount() {
+        return GlyphVectorCache.getMissCount();
+    }
+
+    /**
+     * Returns the number of glyph vectors that were evicted from the cache.
+     *
+     * @return
+     * The glyph vector cache eviction count.
+     */
+    public static long getGlyphVectorCacheEvictionCount() {
+        return GlyphVectorCache.getEvictionCount();
+    }
+
+    /**
+     * Resets the glyph vector cache hit, miss, and eviction counts.
+     */
+    public static void resetGlyphVectorCacheStatistics() {
+        GlyphVectorCache.resetStatistics();
+    }
+
+    /**
+     * Returns the text pane's preferred size for a given amount of available
+     * space. When wrapping is enabled, the preferred height depends on the
+     * available width.
+     * {@inheritDoc}
+     */
+    @Override
+    public Dimension getPreferredSize(int width, int height) {
+        if (!isPreferredSizeSet() && ui instanceof TextPaneUI textPaneUI) {
+            return textPaneUI.getPreferredSize(width);
+        } else {
+            return getPreferredSize();
+        }
+    }
+
+    private LineBreaks getLineBreaks(int width) {
+        var font = getFont();
+
+        if (!matches(lineBreaks, font, width)) {
+            var current = lineBreaks;
+
+            if (matches(previousLineBreaks, font, width)) {
+                lineBreaks = previousLineBreaks;
+            } else if (taskExecutor != null) {
+                lineBreaks = calculateLineBreaksInBackground(font, width);
             } else {
-                appendLine(font, 0, text.length());
+                lineBreaks = calculateLineBreaks(text, font, width, wrapText);
             }
+
+            previousLineBreaks = current;
         }
+
+        return lineBreaks;
+    }
+
+    private boolean matches(LineBreaks lineBreaks, Font font, int width) {
+        // Line breaks do not depend on width when wrapping is disabled
+        return lineBreaks != null && (lineBreaks.width == width || !wrapText) && lineBreaks.font.equals(font);
+    }
+
+    private LineBreaks calculateLineBreaksInBackground(Font font, int width) {
+        var text = this.text;
+        var wrapText = this.wrapText;
+
+        var estimatedLineBreaks = estimateLineBreaks(text, font, width, wrapText);
+
+        // Lines are only shaped for the width at which the text pane will be laid out
+        var insets = getInsets();
+
+        var shape = !lazyShaping && width == Math.max(getWidth() - (insets.left + insets.right), 0);
+
+        taskExecutor.execute(() -> {
+            var lineBreaks = calculateLineBreaks(text, font, width, wrapText);
+
+            if (shape) {
+                shapeLines(text, lineBreaks);
+            }
+
+            return lineBreaks;
+        }, (result, exception) -> {
+            if (exception != null) {
+                throw new RuntimeException(exception);
+            }
+
+            // Results are discarded when the estimate has been invalidated or evicted
+            if (lineBreaks == estimatedLineBreaks) {
+                lineBreaks = result;
+            } else if (previousLineBreaks == estimatedLineBreaks) {
+                previousLineBreaks = result;
+            } else {
+                return;
+            }
+
+            revalidate();
+            repaint();
+        });
+
+        return estimatedLineBreaks;
+    }
+
+    private static LineBreaks estimateLineBreaks(String text, Font font, int width, boolean wrapText) {
+        var lineBreaks = new LineBreaks(font, width);
+
+        lineBreaks.estimated = true;
+
+        var lineHeight = font.getLineMetrics("", fontRenderContext).getHeight();
+
+        var textWidth = text.length() * FontAdvances.getInstance(font, fontRenderContext).getAdvance('n');
+
+        if (wrapText && width > 0) {
+            lineBreaks.textWidth = Math.min(textWidth, width);
+            lineBreaks.textHeight = Math.max(Math.ceil(textWidth / width), 1) * lineHeight;
+        } else {
+            lineBreaks.textWidth = textWidth;
+            lineBreaks.textHeight = lineHeight;
+        }
+
+        return lineBreaks;
+    }
+
+    private static LineBreaks calculateLineBreaks(String text, Font font, int width, boolean wrapText) {
+        var lineBreaks = new LineBreaks(font, width);
+
+        if (wrapText) {
+            wrap(text, lineBreaks, 0);
+        } else {
+            var n = text.length();
+
+            var stringBounds = font.getStringBounds(text, 0, n, fontRenderContext);
+
+            lineBreaks.textHeight = stringBounds.getHeight();
+
+            lineBreaks.add(n, stringBounds.getWidth());
+        }
+
+        return lineBreaks;
+    }
+
+    private static void wrap(String text, LineBreaks lineBreaks, int start) {
+        var fontAdvances = FontAdvances.getInstance(lineBreaks.font, fontRenderContext);
+
+        var width = lineBreaks.width;
+
+        var lineWidth = 0.0;
+        var wordWidth = 0.0;
+        var lastWhitespaceIndex = -1;
+
+        var n = text.length();
+
+        for (var i = start; i < n; i++) {
+            var c = text.charAt(i);
+
+            var advance = fontAdvances.getAdvance(c);
+
+            if (Character.isWhitespace(c)) {
+                lastWhitespaceIndex = i;
+
+                wordWidth = 0.0;
+            } else {
+                wordWidth += advance;
+            }
+
+            lineWidth += advance;
+
+            if (lineWidth > width && lastWhitespaceIndex != -1) {
+                lineBreaks.add(lastWhitespaceIndex, lineWidth);
+
+                // The next line starts with the characters following the last whitespace
+                lineWidth = wordWidth;
+                lastWhitespaceIndex = -1;
+            }
+        }
+
+        lineBreaks.add(n, lineWidth);
+
+        updateTextHeight(lineBreaks);
+    }
+
+    private static void updateTextHeight(LineBreaks lineBreaks) {
+        var lineHeight = lineBreaks.font.getLineMetrics("", fontRenderContext).getHeight();
+
+        lineBreaks.textHeight = lineBreaks.count * lineHeight;
+    }
+
+    private void invalidateLineBreaks() {
+        lineBreaks = null;
+        previousLineBreaks = null;
+
+        layoutLineBreaks = null;
+    }
+
+    private static void shapeLines(String text, LineBreaks lineBreaks) {
+        var n = lineBreaks.count;
+
+        var glyphVectors = new ArrayList<GlyphVector>(n);
+        var lineOffsets = new double[n + 1];
+
+        var textHeight = 0.0;
+
+        for (var i = 0; i < n; i++) {
+            var glyphVector = GlyphVectorCache.getGlyphVector(lineBreaks.font, fontRenderContext, text, lineBreaks.getStart(i), lineBreaks.ends[i]);
+
+            glyphVectors.add(glyphVector);
+
+            textHeight += glyphVector.getLogicalBounds().getHeight();
+
+            lineOffsets[i + 1] = textHeight;
+        }
+
+        lineBreaks.glyphVectors = glyphVectors;
+        lineBreaks.lineOffsets = lineOffsets;
+    }
+
+    private void removeLines(int index, int count) {
+        // Shaped lines are only retained for the line breaks that were last laid out
+        if (layoutLineBreaks == null || lazyShaping) {
+            return;
+        }
+
+        // Lines appended since the last layout have not been shaped yet
+        var shapedCount = glyphVectors.size();
+
+        if (index >= shapedCount) {
+            return;
+        }
+
+        var end = Math.min(index + count, shapedCount);
+
+        glyphVectors.subList(index, end).clear();
+
+        var n = glyphVectors.size();
+
+        var offset = lineOffsets[end] - lineOffsets[index];
+
+        System.arraycopy(lineOffsets, end, lineOffsets, index, n + 1 - index);
+
+        for (var i = index; i <= n; i++) {
+            lineOffsets[i] -= offset;
+        }
+
+        textHeight = lineOffsets[n];
     }
 
     private void appendLine(Font font, int start, int end) {
-        var glyphVector = font.createGlyphVector(fontRenderContext, new StringCharacterIterator(text, start, end, start));
+        var glyphVector = GlyphVectorCache.getGlyphVector(font, fontRenderContext, text, start, end);
 
         glyphVectors.add(glyphVector);
 
         textHeight += glyphVector.getLogicalBounds().getHeight();
+
+        lineOffsets[glyphVectors.size()] = textHeight;
     }
 }
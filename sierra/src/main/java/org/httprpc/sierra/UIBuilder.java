@@ -236,11 +236,13 @@ public class UIBuilder {
     }
 
     private static <P extends BoxPanel> P populate(P panel, Cell<?>... cells) {
-        for (var i = 0; i < cells.length; i++) {
-            var cell = cells[i];
+        panel.batch(() -> {
+            for (var i = 0; i < cells.length; i++) {
+                var cell = cells[i];
 
-            panel.add(cell.component, cell.constraints);
-        }
+                panel.add(cell.component, cell.constraints);
+            }
+        });
 
         return panel;
     }
@@ -293,11 +295,13 @@ public class UIBuilder {
     public static Cell<StackPanel> stack(Cell<?>... cells) {
         var panel = new StackPanel();
 
-        for (var i = cells.length - 1; i >= 0; i--) {
-            var cell = cells[i];
+        panel.batch(() -> {
+            for (var i = cells.length - 1; i >= 0; i--) {
+                var cell = cells[i];
 
-            panel.add(cell.component, cell.constraints);
-        }
+                panel.add(cell.component, cell.constraints);
+            }
+        });
 
         return cell(panel);
     }
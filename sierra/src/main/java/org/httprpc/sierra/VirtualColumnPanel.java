@@ -0,0 +1,357 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.sierra;
+
+import javax.swing.SwingConstants;
+import java.awt.Dimension;
+import java.awt.LayoutManager;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Arranges a potentially very large number of rows vertically, creating
+ * components only for the rows that are currently visible. Rows are produced
+ * by a factory and are recycled as the panel is scrolled, at which point they
+ * are rebound to the row indices they now represent. All rows are given the
+ * same height, determined as the preferred height of a prototype row bound to
+ * the first index. The panel's preferred width is the preferred width of the
+ * prototype row plus horizontal insets. When aligning to grid, the cells of
+ * the visible rows are aligned as in {@link ColumnPanel}.
+ *
+ * @param <R>
+ * The row type.
+ */
+public class VirtualColumnPanel<R extends RowPanel> extends BoxPanel {
+    // Virtual column layout manager
+    private class VirtualColumnLayoutManager extends AbstractLayoutManager {
+        @Override
+        protected void invalidateCache() {
+            super.invalidateCache();
+
+            gridTracksValid = false;
+
+            for (var row : rows) {
+                if (row.getLayout() instanceof AbstractLayoutManager layoutManager) {
+                    layoutManager.invalidateCache();
+                }
+            }
+        }
+
+        @Override
+        protected Dimension preferredLayoutSize(int width, int height) {
+            var insets = getInsets(VirtualColumnPanel.this);
+
+            width = Math.max(width - (insets.left + insets.right), 0);
+
+            var preferredWidth = 0;
+            var preferredHeight = 0;
+
+            if (rowCount > 0) {
+                var prototypeSize = getPreferredSize(getPrototypeRow(), width, Integer.MAX_VALUE);
+
+                if (alignToGrid && !rows.isEmpty()) {
+                    var gridTracks = getGridTracks();
+
+                    preferredWidth = gridTracks.getTotalWidth() + (gridTracks.size() - 1) * gridTracks.getSpacing();
+                } else {
+                    preferredWidth = prototypeSize.width;
+                }
+
+                preferredHeight = rowCount * prototypeSize.height + (rowCount - 1) * getSpacing();
+            }
+
+            return layoutSize(preferredWidth + insets.left + insets.right, preferredHeight + insets.top + insets.bottom);
+        }
+
+        @Override
+        protected void layoutContainer() {
+            if (rowCount == 0) {
+                if (!rows.isEmpty()) {
+                    removeAll();
+
+                    rows.clear();
+                }
+
+                return;
+            }
+
+            var insets = getInsets(VirtualColumnPanel.this);
+
+            var width = Math.max(getWidth() - (insets.left + insets.right), 0);
+
+            var rowHeight = getPreferredSize(getPrototypeRow(), width, Integer.MAX_VALUE).height;
+
+            var stride = Math.max(rowHeight + getSpacing(), 1);
+
+            var visibleRect = getVisibleRect();
+
+            var poolSize = Math.min(visibleRect.height / stride + 2 + overscan * 2, rowCount);
+
+            if (poolSize != rows.size()) {
+                batch(() -> {
+                    while (rows.size() < poolSize) {
+                        var row = rowFactory.get().getComponent();
+
+                        add(row);
+
+                        rows.add(row);
+                    }
+
+                    while (rows.size() > poolSize) {
+                        remove(rows.size() - 1);
+
+                        rows.remove(rows.size() - 1);
+                    }
+                });
+
+                boundIndices = new int[poolSize];
+
+                Arrays.fill(boundIndices, -1);
+            }
+
+            var first = Math.max(Math.min((visibleRect.y - insets.top) / stride - overscan, rowCount - poolSize), 0);
+
+            var rebound = false;
+
+            for (var i = first; i < first + poolSize; i++) {
+                var j = i % poolSize;
+
+                var row = rows.get(j);
+
+                if (boundIndices[j] != i) {
+                    rowBinder.accept(row, i);
+
+                    boundIndices[j] = i;
+
+                    rebound = true;
+                }
+
+                row.setBounds(insets.left, insets.top + i * stride, width, rowHeight);
+            }
+
+            if (rebound && alignToGrid) {
+                invalidateCache();
+
+                for (var row : rows) {
+                    row.invalidate();
+                }
+
+                revalidate();
+            }
+        }
+    }
+
+    private Supplier<? extends UIBuilder.Cell<R>> rowFactory;
+    private ObjIntConsumer<R> rowBinder;
+
+    private int rowCount = 0;
+
+    private int overscan = 2;
+
+    private boolean alignToGrid = false;
+
+    private R prototypeRow = null;
+
+    private List<R> rows = new ArrayList<>();
+    private int[] boundIndices = new int[0];
+
+    private ColumnPanel.GridTracks gridTracks = new ColumnPanel.GridTracks();
+    private boolean gridTracksValid = false;
+
+    /**
+     * Constructs a new virtual column panel.
+     *
+     * @param rowFactory
+     * The factory that will be used to create rows.
+     *
+     * @param rowBinder
+     * The callback that will be used to bind a row to a row index.
+     */
+    public VirtualColumnPanel(Supplier<? extends UIBuilder.Cell<R>> rowFactory, ObjIntConsumer<R> rowBinder) {
+        if (rowFactory == null || rowBinder == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.rowFactory = rowFactory;
+        this.rowBinder = rowBinder;
+
+        setLayout(new VirtualColumnLayoutManager());
+    }
+
+    /**
+     * Sets the layout manager.
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLayout(LayoutManager layoutManager) {
+        if (layoutManager != null && !(layoutManager instanceof VirtualColumnPanel<?>.VirtualColumnLayoutManager)) {
+            throw new IllegalArgumentException();
+        }
+
+        super.setLayout(layoutManager);
+    }
+
+    /**
+     * Returns the number of rows. The default value is 0.
+     *
+     * @return
+     * The row count.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Sets the number of rows. All visible rows will be rebound.
+     *
+     * @param rowCount
+     * The row count.
+     */
+    public void setRowCount(int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.rowCount = rowCount;
+
+        refresh();
+    }
+
+    /**
+     * Returns the number of rows that will be created above and below the
+     * visible rows. The default value is 2.
+     *
+     * @return
+     * The overscan row count.
+     */
+    public int getOverscan() {
+        return overscan;
+    }
+
+    /**
+     * Sets the number of rows that will be created above and below the
+     * visible rows.
+     *
+     * @param overscan
+     * The overscan row count.
+     */
+    public void setOverscan(int overscan) {
+        if (overscan < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.overscan = overscan;
+
+        revalidate();
+    }
+
+    /**
+     * Indicates that the cells of the visible rows will be vertically aligned
+     * in a grid. The default value is {@code false}.
+     *
+     * @return
+     * {@code true} if rows will be aligned to grid; {@code false}, otherwise.
+     */
+    public boolean getAlignToGrid() {
+        return alignToGrid;
+    }
+
+    /**
+     * Toggles grid alignment.
+     *
+     * @param alignToGrid
+     * {@code true} to align rows to grid; {@code false}, otherwise.
+     */
+    public void setAlignToGrid(boolean alignToGrid) {
+        this.alignToGrid = alignToGrid;
+
+        revalidate();
+    }
+
+    /**
+     * Rebinds all visible rows, as well as the prototype row.
+     */
+    public void refresh() {
+        Arrays.fill(boundIndices, -1);
+
+        if (prototypeRow != null && rowCount > 0) {
+            rowBinder.accept(prototypeRow, 0);
+        }
+
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Sets the panel's bounds. Rows are rebound immediately when the panel
+     * is moved within its parent, such as when it is scrolled.
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        var resized = (width != getWidth() || height != getHeight());
+
+        super.setBounds(x, y, width, height);
+
+        if (!resized && !rows.isEmpty()) {
+            doLayout();
+
+            for (var row : rows) {
+                row.validate();
+            }
+        }
+    }
+
+    /**
+     * Returns the row height plus spacing for vertical orientations.
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        if (orientation == SwingConstants.VERTICAL && rowCount > 0) {
+            var insets = getInsets();
+
+            var width = Math.max(getWidth() - (insets.left + insets.right), 0);
+
+            return getPreferredSize(getPrototypeRow(), width, Integer.MAX_VALUE).height + getSpacing();
+        } else {
+            return super.getScrollableUnitIncrement(visibleRect, orientation, direction);
+        }
+    }
+
+    private R getPrototypeRow() {
+        if (prototypeRow == null) {
+            prototypeRow = rowFactory.get().getComponent();
+
+            rowBinder.accept(prototypeRow, 0);
+        }
+
+        return prototypeRow;
+    }
+
+    ColumnPanel.GridTracks getGridTracks() {
+        if (!gridTracksValid) {
+            gridTracks.update(this);
+
+            gridTracksValid = true;
+        }
+
+        return gridTracks;
+    }
+}